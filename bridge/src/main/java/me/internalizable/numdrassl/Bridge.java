@@ -151,7 +151,7 @@ public class Bridge extends JavaPlugin {
      */
     private void verifyPlayerReferral(PlayerSetupConnectEvent event, byte[] data) {
         try {
-            ByteBuf buf = Unpooled.copiedBuffer(data);
+            ByteBuf buf = Unpooled.wrappedBuffer(data);
             byte[] secret = getProxySecret();
 
             SecretMessageUtil.BackendPlayerInfoMessage message = SecretMessageUtil.validateAndDecodePlayerInfoReferral(
@@ -5,12 +5,8 @@ import io.netty.buffer.Unpooled;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
 import java.net.InetSocketAddress;
 import java.nio.charset.StandardCharsets;
-import java.security.InvalidKeyException;
-import java.security.NoSuchAlgorithmException;
 import java.util.UUID;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -18,7 +14,8 @@ import java.util.logging.Logger;
 /**
  * Utility for creating signed messages between proxy and backend servers.
  * Uses HMAC-SHA256 to sign player information, allowing backends to trust
- * the proxy without JWT certificate validation.
+ * the proxy without JWT certificate validation. Signing goes through a
+ * pre-keyed {@link HmacSigner}; callers that sign often should keep their own.
  *
  * <p>Message format:</p>
  * <pre>
@@ -40,12 +37,14 @@ public class SecretMessageUtil {
     private static final Logger LOGGER = Logger.getLogger(SecretMessageUtil.class.getName());
 
     private static final int PROTOCOL_VERSION = 1;
-    private static final String HMAC_ALGORITHM = "HmacSHA256";
-    private static final int HMAC_LENGTH = 32;
+    private static final int HMAC_LENGTH = HmacSigner.TAG_LENGTH;
 
     // Message validity window (5 minutes)
     private static final long MESSAGE_VALIDITY_SECONDS = 300;
 
+    // The proxy and each backend use a single secret, so one cached signer is enough
+    private static volatile HmacSigner cachedSigner;
+
     /**
      * Create a signed player info message to be sent in Connect packet's referralData.
      *
@@ -62,53 +61,67 @@ public class SecretMessageUtil {
             @Nonnull String backendName,
             @Nullable InetSocketAddress remoteAddress,
             @Nonnull byte[] secret) {
+        return createPlayerInfoReferral(uuid, username, backendName, remoteAddress, signerFor(secret));
+    }
 
-        ByteBuf buf = Unpooled.buffer();
-        try {
-            // Write protocol version
-            buf.writeIntLE(PROTOCOL_VERSION);
+    /**
+     * Create a signed player info message with a reusable signer.
+     *
+     * <p>The message is written straight into its final array, which is returned
+     * without further copies.</p>
+     *
+     * @param uuid Player's UUID
+     * @param username Player's username
+     * @param backendName Target backend server name
+     * @param remoteAddress Player's remote address
+     * @param signer Signer keyed with the shared secret
+     * @return Encoded and signed message bytes
+     */
+    public static byte[] createPlayerInfoReferral(
+            @Nonnull UUID uuid,
+            @Nonnull String username,
+            @Nonnull String backendName,
+            @Nullable InetSocketAddress remoteAddress,
+            @Nonnull HmacSigner signer) {
 
-            // Write UUID
-            buf.writeLongLE(uuid.getMostSignificantBits());
-            buf.writeLongLE(uuid.getLeastSignificantBits());
+        byte[] usernameBytes = username.getBytes(StandardCharsets.UTF_8);
+        byte[] backendBytes = backendName.getBytes(StandardCharsets.UTF_8);
+        String remoteStr = remoteAddress != null ? remoteAddress.toString() : "unknown";
+        byte[] remoteBytes = remoteStr.getBytes(StandardCharsets.UTF_8);
 
-            // Write username
-            byte[] usernameBytes = username.getBytes(StandardCharsets.UTF_8);
-            buf.writeIntLE(usernameBytes.length);
-            buf.writeBytes(usernameBytes);
+        int bodyLength = 4 + 16 + 4 + usernameBytes.length + 4 + backendBytes.length
+            + 4 + remoteBytes.length + 4;
+        byte[] result = new byte[bodyLength + HMAC_LENGTH];
+        ByteBuf buf = Unpooled.wrappedBuffer(result).writerIndex(0);
 
-            // Write backend name
-            byte[] backendBytes = backendName.getBytes(StandardCharsets.UTF_8);
-            buf.writeIntLE(backendBytes.length);
-            buf.writeBytes(backendBytes);
+        // Write protocol version
+        buf.writeIntLE(PROTOCOL_VERSION);
 
-            // Write remote address
-            String remoteStr = remoteAddress != null ? remoteAddress.toString() : "unknown";
-            byte[] remoteBytes = remoteStr.getBytes(StandardCharsets.UTF_8);
-            buf.writeIntLE(remoteBytes.length);
-            buf.writeBytes(remoteBytes);
+        // Write UUID
+        buf.writeLongLE(uuid.getMostSignificantBits());
+        buf.writeLongLE(uuid.getLeastSignificantBits());
 
-            // Write timestamp
-            long timestamp = System.currentTimeMillis() / 1000;
-            buf.writeIntLE((int) timestamp);
+        // Write username
+        buf.writeIntLE(usernameBytes.length);
+        buf.writeBytes(usernameBytes);
 
-            // Calculate HMAC over the data written so far
-            byte[] dataToSign = new byte[buf.readableBytes()];
-            buf.getBytes(0, dataToSign);
+        // Write backend name
+        buf.writeIntLE(backendBytes.length);
+        buf.writeBytes(backendBytes);
 
-            byte[] hmac = calculateHmac(dataToSign, secret);
-            buf.writeBytes(hmac);
+        // Write remote address
+        buf.writeIntLE(remoteBytes.length);
+        buf.writeBytes(remoteBytes);
 
-            // Extract final bytes
-            byte[] result = new byte[buf.readableBytes()];
-            buf.readBytes(result);
+        // Write timestamp
+        long timestamp = System.currentTimeMillis() / 1000;
+        buf.writeIntLE((int) timestamp);
 
-            LOGGER.fine("Created player info referral for " + username + " (" + uuid + ") -> " + backendName);
-            return result;
+        // Sign the data written so far and append the tag
+        signer.sign(buf, 0, bodyLength, buf);
 
-        } finally {
-            buf.release();
-        }
+        LOGGER.fine("Created player info referral for " + username + " (" + uuid + ") -> " + backendName);
+        return result;
     }
 
     /**
@@ -128,6 +141,30 @@ public class SecretMessageUtil {
             @Nonnull String expectedUsername,
             @Nonnull String expectedBackend,
             @Nonnull byte[] secret) {
+        return validateAndDecodePlayerInfoReferral(data, expectedUuid, expectedUsername, expectedBackend,
+            signerFor(secret));
+    }
+
+    /**
+     * Validate and decode a player info referral message with a reusable signer.
+     *
+     * <p>The signature is checked in place against {@code data}, under the signer's
+     * current or previous key.</p>
+     *
+     * @param data The referral data bytes (as ByteBuf)
+     * @param expectedUuid Expected player UUID
+     * @param expectedUsername Expected player username
+     * @param expectedBackend Expected backend name
+     * @param signer Signer keyed with the shared secret
+     * @return Decoded message info, or null if validation failed
+     */
+    @Nullable
+    public static BackendPlayerInfoMessage validateAndDecodePlayerInfoReferral(
+            @Nonnull ByteBuf data,
+            @Nonnull UUID expectedUuid,
+            @Nonnull String expectedUsername,
+            @Nonnull String expectedBackend,
+            @Nonnull HmacSigner signer) {
 
         try {
             if (data.readableBytes() < 4 + 16 + 4 + 4 + 4 + 4 + HMAC_LENGTH) {
@@ -150,34 +187,22 @@ public class SecretMessageUtil {
             UUID uuid = new UUID(uuidMsb, uuidLsb);
 
             // Read username
-            int usernameLen = data.readIntLE();
-            if (usernameLen < 0 || usernameLen > 256) {
-                LOGGER.warning("Invalid username length: " + usernameLen);
+            String username = readString(data, "username");
+            if (username == null) {
                 return null;
             }
-            byte[] usernameBytes = new byte[usernameLen];
-            data.readBytes(usernameBytes);
-            String username = new String(usernameBytes, StandardCharsets.UTF_8);
 
             // Read backend name
-            int backendLen = data.readIntLE();
-            if (backendLen < 0 || backendLen > 256) {
-                LOGGER.warning("Invalid backend name length: " + backendLen);
+            String backendName = readString(data, "backend name");
+            if (backendName == null) {
                 return null;
             }
-            byte[] backendBytes = new byte[backendLen];
-            data.readBytes(backendBytes);
-            String backendName = new String(backendBytes, StandardCharsets.UTF_8);
 
             // Read remote address
-            int remoteLen = data.readIntLE();
-            if (remoteLen < 0 || remoteLen > 256) {
-                LOGGER.warning("Invalid remote address length: " + remoteLen);
+            String remoteAddress = readString(data, "remote address");
+            if (remoteAddress == null) {
                 return null;
             }
-            byte[] remoteBytes = new byte[remoteLen];
-            data.readBytes(remoteBytes);
-            String remoteAddress = new String(remoteBytes, StandardCharsets.UTF_8);
 
             // Read timestamp
             int timestamp = data.readIntLE();
@@ -189,22 +214,15 @@ public class SecretMessageUtil {
                 return null;
             }
 
-            // Read HMAC
-            byte[] receivedHmac = new byte[HMAC_LENGTH];
-            data.readBytes(receivedHmac);
-
-            // Calculate expected HMAC
-            int dataLength = data.readerIndex() - startIndex - HMAC_LENGTH;
-            byte[] dataToVerify = new byte[dataLength];
-            data.getBytes(startIndex, dataToVerify);
-
-            byte[] expectedHmac = calculateHmac(dataToVerify, secret);
-
-            // Constant-time comparison
-            if (!constantTimeEquals(receivedHmac, expectedHmac)) {
+            // Verify the HMAC in place (constant-time)
+            int dataLength = data.readerIndex() - startIndex;
+            int tagIndex = data.readerIndex();
+            if (data.readableBytes() < HMAC_LENGTH
+                    || !signer.verify(data, startIndex, dataLength, data, tagIndex)) {
                 LOGGER.warning("HMAC verification failed for player " + username);
                 return null;
             }
+            data.skipBytes(HMAC_LENGTH);
 
             // Verify expected values
             if (!uuid.equals(expectedUuid)) {
@@ -230,6 +248,18 @@ public class SecretMessageUtil {
         }
     }
 
+    @Nullable
+    private static String readString(ByteBuf data, String field) {
+        int length = data.readIntLE();
+        if (length < 0 || length > 256) {
+            LOGGER.warning("Invalid " + field + " length: " + length);
+            return null;
+        }
+        String value = data.toString(data.readerIndex(), length, StandardCharsets.UTF_8);
+        data.skipBytes(length);
+        return value;
+    }
+
     /**
      * Calculate HMAC-SHA256.
      *
@@ -238,28 +268,32 @@ public class SecretMessageUtil {
      * @return the HMAC signature
      */
     public static byte[] calculateHmac(byte[] data, byte[] secret) {
-        try {
-            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
-            SecretKeySpec keySpec = new SecretKeySpec(secret, HMAC_ALGORITHM);
-            mac.init(keySpec);
-            return mac.doFinal(data);
-        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
-            throw new RuntimeException("Failed to calculate HMAC", e);
-        }
+        return signerFor(secret).sign(data);
     }
 
     /**
-     * Constant-time byte array comparison to prevent timing attacks.
+     * Returns the cached signer, keyed with {@code secret}.
+     *
+     * <p>A changed secret is installed with {@link HmacSigner#rotate(byte[])}, so
+     * referrals signed under the previous secret still verify until the next change.</p>
      */
-    private static boolean constantTimeEquals(byte[] a, byte[] b) {
-        if (a.length != b.length) {
-            return false;
+    @Nonnull
+    public static HmacSigner signerFor(@Nonnull byte[] secret) {
+        HmacSigner signer = cachedSigner;
+        if (signer == null) {
+            synchronized (SecretMessageUtil.class) {
+                signer = cachedSigner;
+                if (signer == null) {
+                    signer = new HmacSigner(secret);
+                    cachedSigner = signer;
+                    return signer;
+                }
+            }
         }
-        int result = 0;
-        for (int i = 0; i < a.length; i++) {
-            result |= a[i] ^ b[i];
+        if (!signer.usesSecret(secret)) {
+            signer.rotate(secret);
         }
-        return result == 0;
+        return signer;
     }
 
     /**
@@ -24,6 +24,7 @@ dependencies {
     implementation("io.netty:netty-codec:$nettyVersion")
     implementation("io.netty:netty-handler:$nettyVersion")
     implementation("io.netty:netty-transport:$nettyVersion")
+    implementation("io.netty:netty-resolver-dns:$nettyVersion")
     implementation("io.netty:netty-transport-native-epoll:$nettyVersion:linux-x86_64")
 
     // Netty QUIC (incubator)
@@ -3,6 +3,7 @@
  */
 package com.hypixel.hytale.protocol;
 
+import com.hypixel.hytale.protocol.io.CompressionDictionary;
 import com.hypixel.hytale.protocol.io.ValidationResult;
 import com.hypixel.hytale.protocol.packets.auth.AuthGrant;
 import com.hypixel.hytale.protocol.packets.auth.AuthToken;
@@ -26,41 +27,178 @@ import me.internalizable.numdrassl.event.packet.ProxyPong;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiFunction;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
+/**
+ * Packet codecs by id and by type.
+ *
+ * <p>Lookups by id index a dense array and lookups by type go through a
+ * {@link ClassValue}, so the decoders neither box nor hash per frame. Both are
+ * replaced copy-on-write under a lock when packets are registered, which makes
+ * {@link #registerCustomPacket} safe to call while event loops are decoding: a frame
+ * sees either the old or the new table, and later frames see the new one.</p>
+ */
 public final class PacketRegistry {
-    private static final Map<Integer, PacketInfo> BY_ID = new HashMap<Integer, PacketInfo>();
-    private static final Map<Integer, PacketInfo> BY_ID_UNMODIFIABLE = Collections.unmodifiableMap(BY_ID);
-    private static final Map<Class<? extends Packet>, Integer> BY_TYPE = new HashMap<Class<? extends Packet>, Integer>();
+    public static final int MAX_PACKET_ID = 0xFFFF;
+    private static final Object LOCK = new Object();
+    private static final Map<Class<? extends Packet>, PacketInfo> BY_TYPE = new ConcurrentHashMap<Class<? extends Packet>, PacketInfo>();
+    private static final ClassValue<PacketInfo> TYPE_INFO = new ClassValue<PacketInfo>(){
+
+        @Override
+        protected PacketInfo computeValue(Class<?> type) {
+            return BY_TYPE.get(type);
+        }
+    };
+    private static final Map<Integer, CompressionDictionary> DICTIONARIES = new ConcurrentHashMap<Integer, CompressionDictionary>();
+    private static final Map<Integer, PacketInfo> CUSTOM = new HashMap<Integer, PacketInfo>();
+    private static volatile PacketInfo[] byId = new PacketInfo[0];
+    private static volatile Map<Integer, PacketInfo> all = Map.of();
 
     private PacketRegistry() {
     }
 
     private static void register(int id, String name, Class<? extends Packet> type, int fixedBlockSize, int maxSize, boolean compressed, BiFunction<ByteBuf, Integer, ValidationResult> validate, BiFunction<ByteBuf, Integer, Packet> deserialize) {
-        PacketInfo existing = BY_ID.get(id);
+        PacketInfo info = new PacketInfo(id, name, type, fixedBlockSize, maxSize, compressed, validate, deserialize);
+        synchronized (LOCK) {
+            PacketRegistry.add(info);
+        }
+    }
+
+    private static void add(PacketInfo info) {
+        int id = info.id();
+        if (id < 0 || id > MAX_PACKET_ID) {
+            throw new IllegalArgumentException("Packet ID " + id + " out of range 0-" + MAX_PACKET_ID);
+        }
+        PacketInfo existing = PacketRegistry.getById(id);
         if (existing != null) {
-            throw new IllegalStateException("Duplicate packet ID " + id + ": '" + name + "' conflicts with '" + existing.name() + "'");
+            throw new IllegalStateException("Duplicate packet ID " + id + ": '" + info.name() + "' conflicts with '" + existing.name() + "'");
+        }
+        PacketInfo existingType = BY_TYPE.get(info.type());
+        if (existingType != null) {
+            throw new IllegalStateException("Packet type " + info.type().getName() + " already registered as ID " + existingType.id());
+        }
+        PacketInfo[] table = byId;
+        PacketInfo[] updated = new PacketInfo[Math.max(table.length, id + 1)];
+        System.arraycopy(table, 0, updated, 0, table.length);
+        updated[id] = info;
+        BY_TYPE.put(info.type(), info);
+        TYPE_INFO.remove(info.type());
+        PacketRegistry.publish(updated);
+    }
+
+    private static void publish(PacketInfo[] table) {
+        HashMap<Integer, PacketInfo> snapshot = new HashMap<Integer, PacketInfo>();
+        for (PacketInfo info : table) {
+            if (info == null) continue;
+            snapshot.put(info.id(), info);
+        }
+        byId = table;
+        all = Collections.unmodifiableMap(snapshot);
+    }
+
+    /**
+     * Registers a packet codec at runtime, e.g. for a plugin-defined packet. Frames with
+     * this id are only decoded when a listener claims the id; otherwise they are still
+     * forwarded raw.
+     *
+     * @throws IllegalStateException if the id or type is already registered
+     */
+    public static void registerCustomPacket(int id, @Nonnull String name, @Nonnull Class<? extends Packet> type, int fixedBlockSize, int maxSize, boolean compressed, @Nonnull BiFunction<ByteBuf, Integer, ValidationResult> validate, @Nonnull BiFunction<ByteBuf, Integer, Packet> deserialize) {
+        PacketInfo info = new PacketInfo(id, Objects.requireNonNull(name, "name"), Objects.requireNonNull(type, "type"), fixedBlockSize, maxSize, compressed, Objects.requireNonNull(validate, "validate"), Objects.requireNonNull(deserialize, "deserialize"));
+        synchronized (LOCK) {
+            PacketRegistry.add(info);
+            CUSTOM.put(id, info);
+        }
+    }
+
+    /**
+     * Removes a packet registered with {@link #registerCustomPacket}, along with its
+     * dictionary. Built-in packets cannot be removed.
+     *
+     * @return whether a custom packet was registered with this id
+     */
+    public static boolean unregisterCustomPacket(int id) {
+        synchronized (LOCK) {
+            PacketInfo info = CUSTOM.remove(id);
+            if (info == null) {
+                return false;
+            }
+            PacketInfo[] updated = (PacketInfo[])byId.clone();
+            updated[id] = null;
+            BY_TYPE.remove(info.type());
+            TYPE_INFO.remove(info.type());
+            DICTIONARIES.remove(id);
+            PacketRegistry.publish(updated);
+            return true;
         }
-        PacketInfo info = new PacketInfo(id, name, type, fixedBlockSize, maxSize, compressed, validate, deserialize);
-        BY_ID.put(id, info);
-        BY_TYPE.put(type, id);
     }
 
     @Nullable
     public static PacketInfo getById(int id) {
-        return BY_ID.get(id);
+        PacketInfo[] table = byId;
+        return id >= 0 && id < table.length ? table[id] : null;
+    }
+
+    @Nullable
+    public static PacketInfo getByType(@Nonnull Class<? extends Packet> type) {
+        return TYPE_INFO.get(type);
     }
 
     @Nullable
     public static Integer getId(Class<? extends Packet> type) {
-        return BY_TYPE.get(type);
+        PacketInfo info = TYPE_INFO.get(type);
+        return info != null ? Integer.valueOf(info.id()) : null;
     }
 
     @Nonnull
     public static Map<Integer, PacketInfo> all() {
-        return BY_ID_UNMODIFIABLE;
+        return all;
+    }
+
+    /**
+     * Registers a Zstd dictionary for a compressed packet type. The peer must use the
+     * same dictionary for this id, since frames compressed with it cannot be read
+     * without it.
+     */
+    public static void registerDictionary(int id, @Nonnull CompressionDictionary dictionary) {
+        PacketInfo info = PacketRegistry.getById(id);
+        if (info == null) {
+            throw new IllegalArgumentException("Unknown packet ID " + id);
+        }
+        if (!info.compressed()) {
+            throw new IllegalArgumentException("Packet " + info.name() + " is not compressed");
+        }
+        if (dictionary.isRetired()) {
+            throw new IllegalArgumentException("Dictionary has been retired");
+        }
+        synchronized (DICTIONARIES) {
+            PacketRegistry.retireIfUnused(DICTIONARIES.put(id, dictionary));
+        }
+    }
+
+    public static void unregisterDictionary(int id) {
+        synchronized (DICTIONARIES) {
+            PacketRegistry.retireIfUnused(DICTIONARIES.remove(id));
+        }
+    }
+
+    /**
+     * Retires a dictionary that was replaced or unregistered, unless another packet id
+     * still uses it, so every thread closes its Zstd contexts for it.
+     */
+    private static void retireIfUnused(@Nullable CompressionDictionary dictionary) {
+        if (dictionary != null && !DICTIONARIES.containsValue(dictionary)) {
+            dictionary.retire();
+        }
+    }
+
+    @Nullable
+    public static CompressionDictionary getDictionary(int id) {
+        return DICTIONARIES.isEmpty() ? null : DICTIONARIES.get(id);
     }
 
     static {
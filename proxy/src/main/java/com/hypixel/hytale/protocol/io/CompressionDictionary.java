@@ -0,0 +1,92 @@
+package com.hypixel.hytale.protocol.io;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdDictCompress;
+import com.github.luben.zstd.ZstdDictDecompress;
+import java.util.List;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+
+/**
+ * A Zstd dictionary used for one compressed packet type.
+ *
+ * <p>Dictionaries change the wire format, so both peers must register the same one
+ * for a packet id. The digested forms are built once and shared by every thread.</p>
+ *
+ * <p>Once replaced or unregistered in the packet registry a dictionary is retired: each
+ * thread closes its contexts for it on its next compression call, and it cannot be
+ * registered again.</p>
+ */
+public final class CompressionDictionary {
+    private final long dictId;
+    private final int size;
+    private final ZstdDictCompress compressDict;
+    private final ZstdDictDecompress decompressDict;
+    private volatile boolean retired;
+
+    public CompressionDictionary(@Nonnull byte[] dictionary) {
+        Objects.requireNonNull(dictionary, "dictionary");
+        if (dictionary.length == 0) {
+            throw new IllegalArgumentException("Dictionary is empty");
+        }
+        this.dictId = Zstd.getDictIdFromDict(dictionary);
+        this.size = dictionary.length;
+        this.compressDict = new ZstdDictCompress(dictionary, ZstdCodec.COMPRESSION_LEVEL);
+        this.decompressDict = new ZstdDictDecompress(dictionary);
+    }
+
+    /**
+     * Trains a dictionary from captured, uncompressed payloads of one packet type.
+     *
+     * @param samples the sample payloads
+     * @param maxSize the maximum dictionary size in bytes
+     * @return the trained dictionary
+     */
+    @Nonnull
+    public static CompressionDictionary train(@Nonnull List<byte[]> samples, int maxSize) {
+        if (samples.isEmpty()) {
+            throw new IllegalArgumentException("No samples to train from");
+        }
+        byte[] buffer = new byte[maxSize];
+        long size = Zstd.trainFromBuffer(samples.toArray(new byte[0][]), buffer);
+        if (Zstd.isError(size)) {
+            throw new ProtocolException("Zstd dictionary training failed: " + Zstd.getErrorName(size));
+        }
+        byte[] dictionary = new byte[(int)size];
+        System.arraycopy(buffer, 0, dictionary, 0, dictionary.length);
+        return new CompressionDictionary(dictionary);
+    }
+
+    public long dictId() {
+        return this.dictId;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isRetired() {
+        return this.retired;
+    }
+
+    /**
+     * Marks this dictionary as no longer in use, so the per-thread Zstd contexts built
+     * for it are closed instead of waiting for garbage collection.
+     */
+    public void retire() {
+        if (!this.retired) {
+            this.retired = true;
+            ZstdCodec.dictionaryRetired();
+        }
+    }
+
+    @Nonnull
+    ZstdDictCompress compressDict() {
+        return this.compressDict;
+    }
+
+    @Nonnull
+    ZstdDictDecompress decompressDict() {
+        return this.decompressDict;
+    }
+}
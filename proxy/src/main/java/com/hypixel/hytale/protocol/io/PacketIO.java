@@ -11,7 +11,6 @@ import com.hypixel.hytale.protocol.io.ProtocolException;
 import com.hypixel.hytale.protocol.io.VarInt;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
-import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.UUID;
@@ -22,7 +21,6 @@ public final class PacketIO {
     public static final int FRAME_HEADER_SIZE = 4;
     public static final Charset UTF8 = StandardCharsets.UTF_8;
     public static final Charset ASCII = StandardCharsets.US_ASCII;
-    private static final int COMPRESSION_LEVEL = Integer.getInteger("hytale.protocol.compressionLevel", Zstd.defaultCompressionLevel());
 
     private PacketIO() {
     }
@@ -242,94 +240,93 @@ public final class PacketIO {
         return (short)(sign | (bits & 0x7FFFFF | 0x800000) + (0x800000 >>> val - 102) >>> 126 - val);
     }
 
-    private static int compressToBuffer(@Nonnull ByteBuf src, @Nonnull ByteBuf dst, int dstOffset, int maxDstSize) {
-        if (src.isDirect() && dst.isDirect()) {
-            return Zstd.compress(dst.nioBuffer(dstOffset, maxDstSize), src.nioBuffer(), COMPRESSION_LEVEL);
-        }
-        int srcSize = src.readableBytes();
-        byte[] srcBytes = new byte[srcSize];
-        src.getBytes(src.readerIndex(), srcBytes);
-        byte[] compressed = Zstd.compress(srcBytes, COMPRESSION_LEVEL);
-        dst.setBytes(dstOffset, compressed);
-        return compressed.length;
+    private static int compressToBuffer(@Nonnull ByteBuf src, @Nonnull ByteBuf dst, int dstOffset, int maxDstSize, @Nullable CompressionDictionary dictionary) {
+        return ZstdCodec.compress(src, dst, dstOffset, maxDstSize, dictionary);
     }
 
     @Nonnull
-    private static ByteBuf decompressFromBuffer(@Nonnull ByteBuf src, int srcOffset, int srcLength, int maxDecompressedSize) {
-        if (srcLength > maxDecompressedSize) {
-            throw new ProtocolException("Compressed size " + srcLength + " exceeds max decompressed size " + maxDecompressedSize);
-        }
-        if (src.isDirect()) {
-            ByteBuffer srcNio = src.nioBuffer(srcOffset, srcLength);
-            long decompressedSize = Zstd.getFrameContentSize(srcNio);
-            if (decompressedSize < 0L) {
-                throw new ProtocolException("Invalid Zstd frame or unknown content size");
-            }
-            if (decompressedSize > (long)maxDecompressedSize) {
-                throw new ProtocolException("Decompressed size " + decompressedSize + " exceeds maximum " + maxDecompressedSize);
-            }
-            ByteBuf dst = Unpooled.directBuffer((int)decompressedSize);
-            ByteBuffer dstNio = dst.nioBuffer(0, (int)decompressedSize);
-            int result = Zstd.decompress(dstNio, srcNio);
-            if (Zstd.isError(result)) {
-                dst.release();
-                throw new ProtocolException("Zstd decompression failed: " + Zstd.getErrorName(result));
-            }
-            dst.writerIndex(result);
-            return dst;
-        }
-        byte[] srcBytes = new byte[srcLength];
-        src.getBytes(srcOffset, srcBytes);
-        long decompressedSize = Zstd.getFrameContentSize(srcBytes);
-        if (decompressedSize < 0L) {
-            throw new ProtocolException("Invalid Zstd frame or unknown content size");
-        }
-        if (decompressedSize > (long)maxDecompressedSize) {
-            throw new ProtocolException("Decompressed size " + decompressedSize + " exceeds maximum " + maxDecompressedSize);
+    private static ByteBuf decompressFromBuffer(@Nonnull ByteBuf src, int srcOffset, int srcLength, int maxDecompressedSize, @Nullable CompressionDictionary dictionary) {
+        return ZstdCodec.decompress(src, srcOffset, srcLength, maxDecompressedSize, dictionary);
+    }
+
+    /**
+     * Returns the exact size of the framed packet when uncompressed, or an upper bound
+     * when the packet type is compressed. Used to size output buffers up front.
+     */
+    public static int framedSizeHint(@Nonnull Packet packet) {
+        int payloadSize = Math.max(0, packet.computeSize());
+        PacketRegistry.PacketInfo info = PacketRegistry.getByType(packet.getClass());
+        if (info != null && info.compressed() && payloadSize > 0) {
+            return 8 + (int)Zstd.compressBound(payloadSize);
         }
-        byte[] decompressed = Zstd.decompress(srcBytes, (int)decompressedSize);
-        return Unpooled.wrappedBuffer(decompressed);
+        return 8 + payloadSize;
     }
 
-    /*
-     * WARNING - Removed try catching itself - possible behaviour change.
+    /**
+     * Writes a length-prefixed frame. Uncompressed payloads are serialised straight
+     * into {@code out} and the length is back-patched; compressed payloads are
+     * serialised into a pooled direct buffer of {@link Packet#computeSize()} bytes and
+     * compressed directly into {@code out}, using the packet's registered dictionary
+     * if there is one.
      */
     public static void writeFramedPacket(@Nonnull Packet packet, @Nonnull Class<? extends Packet> packetClass, @Nonnull ByteBuf out, @Nonnull PacketStatsRecorder statsRecorder) {
-        Integer id = PacketRegistry.getId(packetClass);
-        if (id == null) {
+        PacketRegistry.PacketInfo info = PacketRegistry.getByType(packetClass);
+        if (info == null) {
             throw new ProtocolException("Unknown packet type: " + packetClass.getName());
         }
-        PacketRegistry.PacketInfo info = PacketRegistry.getById(id);
+        int id = info.id();
         int lengthIndex = out.writerIndex();
-        out.writeIntLE(0);
-        out.writeIntLE(id);
-        ByteBuf payloadBuf = Unpooled.buffer(Math.min(info.maxSize(), 65536));
+        if (!info.compressed()) {
+            out.writeIntLE(0);
+            out.writeIntLE(id);
+            int payloadIndex = out.writerIndex();
+            try {
+                packet.serialize(out);
+                int serializedSize = out.writerIndex() - payloadIndex;
+                if (serializedSize > info.maxSize()) {
+                    throw new ProtocolException("Packet " + info.name() + " serialized to " + serializedSize + " bytes, exceeds max size " + info.maxSize());
+                }
+                if (serializedSize > 0x64000000) {
+                    throw new ProtocolException("Packet " + info.name() + " payload size " + serializedSize + " exceeds protocol maximum");
+                }
+                out.setIntLE(lengthIndex, serializedSize);
+                statsRecorder.recordSend(id, serializedSize, 0);
+            }
+            catch (RuntimeException e) {
+                out.writerIndex(lengthIndex);
+                throw e;
+            }
+            return;
+        }
+        ByteBuf payloadBuf = out.alloc().directBuffer(Math.max(packet.computeSize(), 1));
         try {
             packet.serialize(payloadBuf);
             int serializedSize = payloadBuf.readableBytes();
             if (serializedSize > info.maxSize()) {
                 throw new ProtocolException("Packet " + info.name() + " serialized to " + serializedSize + " bytes, exceeds max size " + info.maxSize());
             }
-            if (info.compressed() && serializedSize > 0) {
+            out.writeIntLE(0);
+            out.writeIntLE(id);
+            if (serializedSize > 0) {
                 int compressBound = (int)Zstd.compressBound(serializedSize);
                 out.ensureWritable(compressBound);
-                int compressedSize = PacketIO.compressToBuffer(payloadBuf, out, out.writerIndex(), compressBound);
-                if (Zstd.isError(compressedSize)) {
-                    throw new ProtocolException("Zstd compression failed: " + Zstd.getErrorName(compressedSize));
+                int compressedSize;
+                try {
+                    compressedSize = PacketIO.compressToBuffer(payloadBuf, out, out.writerIndex(), compressBound, PacketRegistry.getDictionary(id));
+                }
+                catch (RuntimeException e) {
+                    out.writerIndex(lengthIndex);
+                    throw e;
                 }
                 if (compressedSize > 0x64000000) {
+                    out.writerIndex(lengthIndex);
                     throw new ProtocolException("Packet " + info.name() + " compressed payload size " + compressedSize + " exceeds protocol maximum");
                 }
                 out.writerIndex(out.writerIndex() + compressedSize);
                 out.setIntLE(lengthIndex, compressedSize);
                 statsRecorder.recordSend(id, serializedSize, compressedSize);
             } else {
-                if (serializedSize > 0x64000000) {
-                    throw new ProtocolException("Packet " + info.name() + " payload size " + serializedSize + " exceeds protocol maximum");
-                }
-                out.writeBytes(payloadBuf);
-                out.setIntLE(lengthIndex, serializedSize);
-                statsRecorder.recordSend(id, serializedSize, 0);
+                statsRecorder.recordSend(id, 0, 0);
             }
         }
         finally {
@@ -358,7 +355,7 @@ public final class PacketIO {
         int compressedSize = 0;
         if (info.compressed() && payloadLength > 0) {
             try {
-                payload = PacketIO.decompressFromBuffer(in, in.readerIndex(), payloadLength, info.maxSize());
+                payload = PacketIO.decompressFromBuffer(in, in.readerIndex(), payloadLength, info.maxSize(), PacketRegistry.getDictionary(info.id()));
             }
             catch (ProtocolException e) {
                 in.skipBytes(payloadLength);
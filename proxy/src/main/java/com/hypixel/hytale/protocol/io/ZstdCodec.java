@@ -0,0 +1,177 @@
+package com.hypixel.hytale.protocol.io;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdCompressCtx;
+import com.github.luben.zstd.ZstdDecompressCtx;
+import com.github.luben.zstd.ZstdException;
+import io.netty.buffer.ByteBuf;
+import io.netty.util.concurrent.FastThreadLocal;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Zstd compression for packet payloads, using thread-confined contexts.
+ *
+ * <p>Each thread (in practice each event loop) keeps its own compression and
+ * decompression contexts, plus one per dictionary in use, so no context is set up per
+ * packet. Both sides of every call are direct buffers. Heap input is staged in a
+ * pooled direct buffer instead of going through {@code byte[]} copies, and output
+ * buffers come from the source buffer's allocator.</p>
+ *
+ * <p>Dictionary contexts hold native memory, so they are closed as soon as their
+ * dictionary is retired rather than left for garbage collection. Retiring bumps a
+ * shared counter, and each thread sweeps its contexts when it sees the counter move.</p>
+ */
+final class ZstdCodec {
+    static final int COMPRESSION_LEVEL = Integer.getInteger("hytale.protocol.compressionLevel", Zstd.defaultCompressionLevel());
+
+    private static final FastThreadLocal<Contexts> CONTEXTS = new FastThreadLocal<Contexts>() {
+        @Override
+        protected Contexts initialValue() {
+            return new Contexts();
+        }
+
+        @Override
+        protected void onRemoval(Contexts contexts) {
+            contexts.close();
+        }
+    };
+
+    private static final AtomicInteger RETIRED_DICTIONARIES = new AtomicInteger();
+
+    private ZstdCodec() {
+    }
+
+    static void dictionaryRetired() {
+        RETIRED_DICTIONARIES.incrementAndGet();
+    }
+
+    static int compress(@Nonnull ByteBuf src, @Nonnull ByteBuf dst, int dstOffset, int maxDstSize, @Nullable CompressionDictionary dictionary) {
+        int srcLength = src.readableBytes();
+        ByteBuf directSrc = src.isDirect() ? src : toDirect(src, src.readerIndex(), srcLength);
+        ByteBuf directDst = dst.isDirect() ? dst : dst.alloc().directBuffer(maxDstSize);
+        int directDstOffset = dst.isDirect() ? dstOffset : 0;
+        try {
+            ByteBuffer srcNio = directSrc.nioBuffer(directSrc.readerIndex(), srcLength);
+            ByteBuffer dstNio = directDst.nioBuffer(directDstOffset, maxDstSize);
+            int size = CONTEXTS.get().compressor(dictionary).compressDirectByteBuffer(dstNio, dstNio.position(), dstNio.remaining(), srcNio, srcNio.position(), srcNio.remaining());
+            if (directDst != dst) {
+                dst.setBytes(dstOffset, directDst, 0, size);
+            }
+            return size;
+        }
+        catch (ZstdException e) {
+            throw new ProtocolException("Zstd compression failed: " + e.getMessage(), e);
+        }
+        finally {
+            if (directSrc != src) {
+                directSrc.release();
+            }
+            if (directDst != dst) {
+                directDst.release();
+            }
+        }
+    }
+
+    @Nonnull
+    static ByteBuf decompress(@Nonnull ByteBuf src, int srcOffset, int srcLength, int maxDecompressedSize, @Nullable CompressionDictionary dictionary) {
+        if (srcLength > maxDecompressedSize) {
+            throw new ProtocolException("Compressed size " + srcLength + " exceeds max decompressed size " + maxDecompressedSize);
+        }
+        ByteBuf directSrc = src.isDirect() ? src : toDirect(src, srcOffset, srcLength);
+        int directSrcOffset = src.isDirect() ? srcOffset : 0;
+        try {
+            ByteBuffer srcNio = directSrc.nioBuffer(directSrcOffset, srcLength);
+            long decompressedSize = Zstd.getFrameContentSize(srcNio);
+            if (decompressedSize < 0L) {
+                throw new ProtocolException("Invalid Zstd frame or unknown content size");
+            }
+            if (decompressedSize > (long)maxDecompressedSize) {
+                throw new ProtocolException("Decompressed size " + decompressedSize + " exceeds maximum " + maxDecompressedSize);
+            }
+            ByteBuf dst = src.alloc().directBuffer((int)decompressedSize);
+            try {
+                ByteBuffer dstNio = dst.nioBuffer(0, (int)decompressedSize);
+                int result = CONTEXTS.get().decompressor(dictionary).decompressDirectByteBuffer(dstNio, dstNio.position(), dstNio.remaining(), srcNio, srcNio.position(), srcNio.remaining());
+                dst.writerIndex(result);
+                return dst;
+            }
+            catch (ZstdException e) {
+                dst.release();
+                throw new ProtocolException("Zstd decompression failed: " + e.getMessage(), e);
+            }
+        }
+        finally {
+            if (directSrc != src) {
+                directSrc.release();
+            }
+        }
+    }
+
+    private static ByteBuf toDirect(ByteBuf buf, int index, int length) {
+        ByteBuf direct = buf.alloc().directBuffer(length);
+        direct.writeBytes(buf, index, length);
+        return direct;
+    }
+
+    private static final class Contexts {
+        private final ZstdCompressCtx compress = newCompressCtx();
+        private final ZstdDecompressCtx decompress = new ZstdDecompressCtx();
+        private final Map<CompressionDictionary, ZstdCompressCtx> dictCompress = new WeakHashMap<>();
+        private final Map<CompressionDictionary, ZstdDecompressCtx> dictDecompress = new WeakHashMap<>();
+        private int retiredSeen;
+
+        ZstdCompressCtx compressor(@Nullable CompressionDictionary dictionary) {
+            this.closeRetired();
+            if (dictionary == null) {
+                return this.compress;
+            }
+            return this.dictCompress.computeIfAbsent(dictionary, d -> newCompressCtx().loadDict(d.compressDict()));
+        }
+
+        ZstdDecompressCtx decompressor(@Nullable CompressionDictionary dictionary) {
+            this.closeRetired();
+            if (dictionary == null) {
+                return this.decompress;
+            }
+            return this.dictDecompress.computeIfAbsent(dictionary, d -> new ZstdDecompressCtx().loadDict(d.decompressDict()));
+        }
+
+        private void closeRetired() {
+            int retired = RETIRED_DICTIONARIES.get();
+            if (retired == this.retiredSeen) {
+                return;
+            }
+            this.retiredSeen = retired;
+            this.dictCompress.entrySet().removeIf(entry -> {
+                if (!entry.getKey().isRetired()) {
+                    return false;
+                }
+                entry.getValue().close();
+                return true;
+            });
+            this.dictDecompress.entrySet().removeIf(entry -> {
+                if (!entry.getKey().isRetired()) {
+                    return false;
+                }
+                entry.getValue().close();
+                return true;
+            });
+        }
+
+        private static ZstdCompressCtx newCompressCtx() {
+            return new ZstdCompressCtx().setLevel(COMPRESSION_LEVEL).setContentSize(true);
+        }
+
+        void close() {
+            this.compress.close();
+            this.decompress.close();
+            this.dictCompress.values().forEach(ZstdCompressCtx::close);
+            this.dictDecompress.values().forEach(ZstdDecompressCtx::close);
+        }
+    }
+}
@@ -24,6 +24,10 @@ public class ProxyConfig {
     private int bindPort = 24322;
     private String publicAddress = null;
     private int publicPort = 0;
+    private Boolean nativeTransport = true;
+    private int ioThreads = 0;
+    private Boolean udpOffload = true;
+    private int udpMaxSegments = 16;
 
     // TLS configuration
     private String certificatePath = "certs/server.crt";
@@ -32,6 +36,44 @@ public class ProxyConfig {
     // Connection limits
     private int maxConnections = 1000;
     private int connectionTimeoutSeconds = 30;
+    private int backendMaxConnectionsPerSocket = 1024;
+    private int connectionRatePerIp = 5;
+    private int connectionBurstPerIp = 10;
+    private int connectionRatePerSubnet = 50;
+    private int connectionBurstPerSubnet = 100;
+    private int maxConcurrentHandshakes = 500;
+
+    // Address validation
+    private int retryHandshakeRateThreshold = 200;
+    private int retryHalfOpenThreshold = 100;
+    private int retryKeyRotationSeconds = 60;
+
+    // Backend connection pool
+    private int backendPoolMinIdle = 2;
+    private int backendPoolMaxAgeSeconds = 20;
+    private int backendPoolRefillPerSecond = 4;
+
+    // Write batching
+    private int writeBatchMaxBytes = 65536;
+    private int writeBatchMaxMessages = 64;
+    private int writeBatchFlushDelayMicros = 500;
+
+    // Backpressure
+    private int clientWriteLowWaterMark = 512 * 1024;
+    private int clientWriteHighWaterMark = 1024 * 1024;
+    private int backendWriteLowWaterMark = 128 * 1024;
+    private int backendWriteHighWaterMark = 256 * 1024;
+
+    // Cut-through forwarding
+    private int cutThroughThresholdBytes = 256 * 1024;
+
+    // Flow control
+    private int quicInitialMaxData = 1024 * 1024;
+    private int quicInitialMaxStreamData = 256 * 1024;
+    private int quicMaxStreams = 100;
+    private int windowTuneIntervalMillis = 1000;
+    private int windowMaxHighWaterMark = 8 * 1024 * 1024;
+    private long windowMemoryBudgetBytes = 512L * 1024 * 1024;
 
     // Debug options
     private Boolean debugMode = false;
@@ -117,6 +159,16 @@ public class ProxyConfig {
             writer.write("publicAddress: " + formatValue(publicAddress) + "\n");
             writer.write("publicPort: " + publicPort + "\n\n");
 
+            writer.write("# Use the native epoll transport on Linux (falls back to NIO elsewhere)\n");
+            writer.write("# With epoll, one SO_REUSEPORT UDP socket is bound per I/O thread\n");
+            writer.write("nativeTransport: " + nativeTransport + "\n");
+            writer.write("# Number of I/O threads (0 = number of CPU cores)\n");
+            writer.write("ioThreads: " + ioThreads + "\n");
+            writer.write("# Use UDP segmentation offload (GSO/GRO) with the native transport when the\n");
+            writer.write("# kernel supports it, sending up to udpMaxSegments QUIC packets per syscall\n");
+            writer.write("udpOffload: " + udpOffload + "\n");
+            writer.write("udpMaxSegments: " + udpMaxSegments + "\n\n");
+
             // TLS configuration
             writer.write("# ==================== TLS Configuration ====================\n\n");
             writer.write("# TLS certificates (auto-generated if missing)\n");
@@ -128,13 +180,80 @@ public class ProxyConfig {
             writer.write("# Maximum concurrent connections\n");
             writer.write("maxConnections: " + maxConnections + "\n");
             writer.write("# Connection timeout in seconds\n");
-            writer.write("connectionTimeoutSeconds: " + connectionTimeoutSeconds + "\n\n");
+            writer.write("connectionTimeoutSeconds: " + connectionTimeoutSeconds + "\n");
+            writer.write("# Backend connections share UDP sockets (one set per I/O thread)\n");
+            writer.write("# Maximum backend connections multiplexed on a single socket\n");
+            writer.write("backendMaxConnectionsPerSocket: " + backendMaxConnectionsPerSocket + "\n");
+            writer.write("# New connections per second and burst size per client IP (rate 0 = unlimited)\n");
+            writer.write("connectionRatePerIp: " + connectionRatePerIp + "\n");
+            writer.write("connectionBurstPerIp: " + connectionBurstPerIp + "\n");
+            writer.write("# New connections per second and burst size per /24 (IPv4) or /64 (IPv6) subnet\n");
+            writer.write("connectionRatePerSubnet: " + connectionRatePerSubnet + "\n");
+            writer.write("connectionBurstPerSubnet: " + connectionBurstPerSubnet + "\n");
+            writer.write("# Unfinished handshakes at which new connections are rejected (0 = unlimited)\n");
+            writer.write("maxConcurrentHandshakes: " + maxConcurrentHandshakes + "\n\n");
+
+            writer.write("# ==================== Address Validation ====================\n\n");
+            writer.write("# New clients must prove their address with a QUIC Retry round trip once either\n");
+            writer.write("# threshold is reached (0 = threshold disabled; both 0 = never require Retry)\n");
+            writer.write("# New handshakes per second\n");
+            writer.write("retryHandshakeRateThreshold: " + retryHandshakeRateThreshold + "\n");
+            writer.write("# Handshakes started but not yet finished\n");
+            writer.write("retryHalfOpenThreshold: " + retryHalfOpenThreshold + "\n");
+            writer.write("# How often the Retry token signing key is replaced, in seconds\n");
+            writer.write("retryKeyRotationSeconds: " + retryKeyRotationSeconds + "\n\n");
+
+            writer.write("# ==================== Backend Connection Pool ====================\n\n");
+            writer.write("# Handshaken connections kept ready per backend on each I/O thread (0 = disabled)\n");
+            writer.write("backendPoolMinIdle: " + backendPoolMinIdle + "\n");
+            writer.write("# Maximum age of an idle pooled connection in seconds (capped below connectionTimeoutSeconds)\n");
+            writer.write("backendPoolMaxAgeSeconds: " + backendPoolMaxAgeSeconds + "\n");
+            writer.write("# Maximum new pooled connections opened per backend per second\n");
+            writer.write("backendPoolRefillPerSecond: " + backendPoolRefillPerSecond + "\n\n");
+
+            // Write batching
+            writer.write("# ==================== Write Batching ====================\n\n");
+            writer.write("# Forwarded packets are written without flushing and flushed once per read burst\n");
+            writer.write("# Flush early once this many bytes are pending on a stream\n");
+            writer.write("writeBatchMaxBytes: " + writeBatchMaxBytes + "\n");
+            writer.write("# Flush early once this many messages are pending on a stream\n");
+            writer.write("writeBatchMaxMessages: " + writeBatchMaxMessages + "\n");
+            writer.write("# Maximum time a write may wait for a flush, in microseconds (0 = next event loop turn)\n");
+            writer.write("writeBatchFlushDelayMicros: " + writeBatchFlushDelayMicros + "\n\n");
+
+            writer.write("# ==================== Backpressure ====================\n\n");
+            writer.write("# Reading from the other side pauses once a stream buffers more than the high\n");
+            writer.write("# water mark (bytes) and resumes when it drains below the low water mark\n");
+            writer.write("clientWriteLowWaterMark: " + clientWriteLowWaterMark + "\n");
+            writer.write("clientWriteHighWaterMark: " + clientWriteHighWaterMark + "\n");
+            writer.write("backendWriteLowWaterMark: " + backendWriteLowWaterMark + "\n");
+            writer.write("backendWriteHighWaterMark: " + backendWriteHighWaterMark + "\n\n");
+
+            writer.write("# ==================== Cut-Through Forwarding ====================\n\n");
+            writer.write("# Forwarded packets with a payload of at least this many bytes are streamed to the\n");
+            writer.write("# other side as they arrive instead of being buffered whole (0 = disabled)\n");
+            writer.write("cutThroughThresholdBytes: " + cutThroughThresholdBytes + "\n\n");
+
+            writer.write("# ==================== Flow Control ====================\n\n");
+            writer.write("# Initial QUIC receive windows in bytes; the QUIC stack grows them per connection\n");
+            writer.write("quicInitialMaxData: " + quicInitialMaxData + "\n");
+            writer.write("quicInitialMaxStreamData: " + quicInitialMaxStreamData + "\n");
+            writer.write("# Maximum concurrent bidirectional and unidirectional streams per connection\n");
+            writer.write("quicMaxStreams: " + quicMaxStreams + "\n");
+            writer.write("# Stream water marks are resized to the measured bandwidth-delay product\n");
+            writer.write("# at this interval in milliseconds (0 = disabled)\n");
+            writer.write("windowTuneIntervalMillis: " + windowTuneIntervalMillis + "\n");
+            writer.write("# Largest high water mark a single stream can grow to\n");
+            writer.write("windowMaxHighWaterMark: " + windowMaxHighWaterMark + "\n");
+            writer.write("# Total bytes all streams together may grow beyond the configured water marks\n");
+            writer.write("windowMemoryBudgetBytes: " + windowMemoryBudgetBytes + "\n\n");
 
             // Debug options
             writer.write("# ==================== Debug Options ====================\n\n");
             writer.write("# Enable verbose logging for debugging\n");
             writer.write("debugMode: " + debugMode + "\n");
-            writer.write("# Passthrough mode (forward packets without inspection)\n");
+            writer.write("# Passthrough mode (relay packets without decoding once a player is connected;\n");
+            writer.write("# only packets claimed by listeners or event mappings are decoded)\n");
             writer.write("passthroughMode: " + passthroughMode + "\n\n");
 
             // Backend authentication
@@ -202,6 +321,23 @@ public class ProxyConfig {
             changed = true;
         }
 
+        if (nativeTransport == null) {
+            nativeTransport = true;
+            changed = true;
+        }
+        if (ioThreads < 0) {
+            ioThreads = 0;
+            changed = true;
+        }
+        if (udpOffload == null) {
+            udpOffload = true;
+            changed = true;
+        }
+        if (udpMaxSegments <= 0 || udpMaxSegments > 64) {
+            udpMaxSegments = 16;
+            changed = true;
+        }
+
         if (certificatePath == null) {
             certificatePath = "certs/server.crt";
             changed = true;
@@ -219,6 +355,106 @@ public class ProxyConfig {
             connectionTimeoutSeconds = 30;
             changed = true;
         }
+        if (backendMaxConnectionsPerSocket <= 0) {
+            backendMaxConnectionsPerSocket = 1024;
+            changed = true;
+        }
+        if (connectionRatePerIp < 0 || connectionBurstPerIp < 0) {
+            connectionRatePerIp = 5;
+            connectionBurstPerIp = 10;
+            changed = true;
+        }
+        if (connectionRatePerSubnet < 0 || connectionBurstPerSubnet < 0) {
+            connectionRatePerSubnet = 50;
+            connectionBurstPerSubnet = 100;
+            changed = true;
+        }
+        if (maxConcurrentHandshakes < 0) {
+            maxConcurrentHandshakes = 500;
+            changed = true;
+        }
+
+        if (retryHandshakeRateThreshold < 0) {
+            retryHandshakeRateThreshold = 200;
+            changed = true;
+        }
+        if (retryHalfOpenThreshold < 0) {
+            retryHalfOpenThreshold = 100;
+            changed = true;
+        }
+        if (retryKeyRotationSeconds <= 0) {
+            retryKeyRotationSeconds = 60;
+            changed = true;
+        }
+
+        if (backendPoolMinIdle < 0) {
+            backendPoolMinIdle = 2;
+            changed = true;
+        }
+        if (backendPoolMaxAgeSeconds <= 0) {
+            backendPoolMaxAgeSeconds = 20;
+            changed = true;
+        }
+        if (backendPoolRefillPerSecond <= 0) {
+            backendPoolRefillPerSecond = 4;
+            changed = true;
+        }
+
+        if (writeBatchMaxBytes <= 0) {
+            writeBatchMaxBytes = 65536;
+            changed = true;
+        }
+        if (writeBatchMaxMessages <= 0) {
+            writeBatchMaxMessages = 64;
+            changed = true;
+        }
+        if (writeBatchFlushDelayMicros < 0) {
+            writeBatchFlushDelayMicros = 500;
+            changed = true;
+        }
+
+        if (clientWriteHighWaterMark <= 0 || clientWriteLowWaterMark <= 0
+                || clientWriteLowWaterMark > clientWriteHighWaterMark) {
+            clientWriteLowWaterMark = 512 * 1024;
+            clientWriteHighWaterMark = 1024 * 1024;
+            changed = true;
+        }
+        if (backendWriteHighWaterMark <= 0 || backendWriteLowWaterMark <= 0
+                || backendWriteLowWaterMark > backendWriteHighWaterMark) {
+            backendWriteLowWaterMark = 128 * 1024;
+            backendWriteHighWaterMark = 256 * 1024;
+            changed = true;
+        }
+
+        if (cutThroughThresholdBytes < 0) {
+            cutThroughThresholdBytes = 256 * 1024;
+            changed = true;
+        }
+
+        if (quicInitialMaxData <= 0) {
+            quicInitialMaxData = 1024 * 1024;
+            changed = true;
+        }
+        if (quicInitialMaxStreamData <= 0) {
+            quicInitialMaxStreamData = 256 * 1024;
+            changed = true;
+        }
+        if (quicMaxStreams <= 0) {
+            quicMaxStreams = 100;
+            changed = true;
+        }
+        if (windowTuneIntervalMillis < 0) {
+            windowTuneIntervalMillis = 1000;
+            changed = true;
+        }
+        if (windowMaxHighWaterMark <= 0) {
+            windowMaxHighWaterMark = 8 * 1024 * 1024;
+            changed = true;
+        }
+        if (windowMemoryBudgetBytes < 0) {
+            windowMemoryBudgetBytes = 512L * 1024 * 1024;
+            changed = true;
+        }
 
         if (debugMode == null) {
             debugMode = false;
@@ -322,6 +558,38 @@ public class ProxyConfig {
         this.publicPort = publicPort;
     }
 
+    public boolean isNativeTransport() {
+        return nativeTransport != null && nativeTransport;
+    }
+
+    public void setNativeTransport(boolean nativeTransport) {
+        this.nativeTransport = nativeTransport;
+    }
+
+    public int getIoThreads() {
+        return ioThreads;
+    }
+
+    public void setIoThreads(int ioThreads) {
+        this.ioThreads = ioThreads;
+    }
+
+    public boolean isUdpOffload() {
+        return udpOffload != null && udpOffload;
+    }
+
+    public void setUdpOffload(boolean udpOffload) {
+        this.udpOffload = udpOffload;
+    }
+
+    public int getUdpMaxSegments() {
+        return udpMaxSegments;
+    }
+
+    public void setUdpMaxSegments(int udpMaxSegments) {
+        this.udpMaxSegments = udpMaxSegments;
+    }
+
     // ==================== TLS Getters/Setters ====================
 
     public String getCertificatePath() {
@@ -358,6 +626,226 @@ public class ProxyConfig {
         this.connectionTimeoutSeconds = connectionTimeoutSeconds;
     }
 
+    public int getBackendMaxConnectionsPerSocket() {
+        return backendMaxConnectionsPerSocket;
+    }
+
+    public void setBackendMaxConnectionsPerSocket(int backendMaxConnectionsPerSocket) {
+        this.backendMaxConnectionsPerSocket = backendMaxConnectionsPerSocket;
+    }
+
+    public int getConnectionRatePerIp() {
+        return connectionRatePerIp;
+    }
+
+    public void setConnectionRatePerIp(int connectionRatePerIp) {
+        this.connectionRatePerIp = connectionRatePerIp;
+    }
+
+    public int getConnectionBurstPerIp() {
+        return connectionBurstPerIp;
+    }
+
+    public void setConnectionBurstPerIp(int connectionBurstPerIp) {
+        this.connectionBurstPerIp = connectionBurstPerIp;
+    }
+
+    public int getConnectionRatePerSubnet() {
+        return connectionRatePerSubnet;
+    }
+
+    public void setConnectionRatePerSubnet(int connectionRatePerSubnet) {
+        this.connectionRatePerSubnet = connectionRatePerSubnet;
+    }
+
+    public int getConnectionBurstPerSubnet() {
+        return connectionBurstPerSubnet;
+    }
+
+    public void setConnectionBurstPerSubnet(int connectionBurstPerSubnet) {
+        this.connectionBurstPerSubnet = connectionBurstPerSubnet;
+    }
+
+    public int getMaxConcurrentHandshakes() {
+        return maxConcurrentHandshakes;
+    }
+
+    public void setMaxConcurrentHandshakes(int maxConcurrentHandshakes) {
+        this.maxConcurrentHandshakes = maxConcurrentHandshakes;
+    }
+
+    // ==================== Address Validation Getters/Setters ====================
+
+    public int getRetryHandshakeRateThreshold() {
+        return retryHandshakeRateThreshold;
+    }
+
+    public void setRetryHandshakeRateThreshold(int retryHandshakeRateThreshold) {
+        this.retryHandshakeRateThreshold = retryHandshakeRateThreshold;
+    }
+
+    public int getRetryHalfOpenThreshold() {
+        return retryHalfOpenThreshold;
+    }
+
+    public void setRetryHalfOpenThreshold(int retryHalfOpenThreshold) {
+        this.retryHalfOpenThreshold = retryHalfOpenThreshold;
+    }
+
+    public int getRetryKeyRotationSeconds() {
+        return retryKeyRotationSeconds;
+    }
+
+    public void setRetryKeyRotationSeconds(int retryKeyRotationSeconds) {
+        this.retryKeyRotationSeconds = retryKeyRotationSeconds;
+    }
+
+    // ==================== Backend Connection Pool Getters/Setters ====================
+
+    public int getBackendPoolMinIdle() {
+        return backendPoolMinIdle;
+    }
+
+    public void setBackendPoolMinIdle(int backendPoolMinIdle) {
+        this.backendPoolMinIdle = backendPoolMinIdle;
+    }
+
+    public int getBackendPoolMaxAgeSeconds() {
+        return backendPoolMaxAgeSeconds;
+    }
+
+    public void setBackendPoolMaxAgeSeconds(int backendPoolMaxAgeSeconds) {
+        this.backendPoolMaxAgeSeconds = backendPoolMaxAgeSeconds;
+    }
+
+    public int getBackendPoolRefillPerSecond() {
+        return backendPoolRefillPerSecond;
+    }
+
+    public void setBackendPoolRefillPerSecond(int backendPoolRefillPerSecond) {
+        this.backendPoolRefillPerSecond = backendPoolRefillPerSecond;
+    }
+
+    // ==================== Write Batching Getters/Setters ====================
+
+    public int getWriteBatchMaxBytes() {
+        return writeBatchMaxBytes;
+    }
+
+    public void setWriteBatchMaxBytes(int writeBatchMaxBytes) {
+        this.writeBatchMaxBytes = writeBatchMaxBytes;
+    }
+
+    public int getWriteBatchMaxMessages() {
+        return writeBatchMaxMessages;
+    }
+
+    public void setWriteBatchMaxMessages(int writeBatchMaxMessages) {
+        this.writeBatchMaxMessages = writeBatchMaxMessages;
+    }
+
+    public int getWriteBatchFlushDelayMicros() {
+        return writeBatchFlushDelayMicros;
+    }
+
+    public void setWriteBatchFlushDelayMicros(int writeBatchFlushDelayMicros) {
+        this.writeBatchFlushDelayMicros = writeBatchFlushDelayMicros;
+    }
+
+    // ==================== Backpressure Getters/Setters ====================
+
+    public int getClientWriteLowWaterMark() {
+        return clientWriteLowWaterMark;
+    }
+
+    public void setClientWriteLowWaterMark(int clientWriteLowWaterMark) {
+        this.clientWriteLowWaterMark = clientWriteLowWaterMark;
+    }
+
+    public int getClientWriteHighWaterMark() {
+        return clientWriteHighWaterMark;
+    }
+
+    public void setClientWriteHighWaterMark(int clientWriteHighWaterMark) {
+        this.clientWriteHighWaterMark = clientWriteHighWaterMark;
+    }
+
+    public int getBackendWriteLowWaterMark() {
+        return backendWriteLowWaterMark;
+    }
+
+    public void setBackendWriteLowWaterMark(int backendWriteLowWaterMark) {
+        this.backendWriteLowWaterMark = backendWriteLowWaterMark;
+    }
+
+    public int getBackendWriteHighWaterMark() {
+        return backendWriteHighWaterMark;
+    }
+
+    public void setBackendWriteHighWaterMark(int backendWriteHighWaterMark) {
+        this.backendWriteHighWaterMark = backendWriteHighWaterMark;
+    }
+
+    // ==================== Cut-Through Getters/Setters ====================
+
+    public int getCutThroughThresholdBytes() {
+        return cutThroughThresholdBytes;
+    }
+
+    public void setCutThroughThresholdBytes(int cutThroughThresholdBytes) {
+        this.cutThroughThresholdBytes = cutThroughThresholdBytes;
+    }
+
+    // ==================== Flow Control Getters/Setters ====================
+
+    public int getQuicInitialMaxData() {
+        return quicInitialMaxData;
+    }
+
+    public void setQuicInitialMaxData(int quicInitialMaxData) {
+        this.quicInitialMaxData = quicInitialMaxData;
+    }
+
+    public int getQuicInitialMaxStreamData() {
+        return quicInitialMaxStreamData;
+    }
+
+    public void setQuicInitialMaxStreamData(int quicInitialMaxStreamData) {
+        this.quicInitialMaxStreamData = quicInitialMaxStreamData;
+    }
+
+    public int getQuicMaxStreams() {
+        return quicMaxStreams;
+    }
+
+    public void setQuicMaxStreams(int quicMaxStreams) {
+        this.quicMaxStreams = quicMaxStreams;
+    }
+
+    public int getWindowTuneIntervalMillis() {
+        return windowTuneIntervalMillis;
+    }
+
+    public void setWindowTuneIntervalMillis(int windowTuneIntervalMillis) {
+        this.windowTuneIntervalMillis = windowTuneIntervalMillis;
+    }
+
+    public int getWindowMaxHighWaterMark() {
+        return windowMaxHighWaterMark;
+    }
+
+    public void setWindowMaxHighWaterMark(int windowMaxHighWaterMark) {
+        this.windowMaxHighWaterMark = windowMaxHighWaterMark;
+    }
+
+    public long getWindowMemoryBudgetBytes() {
+        return windowMemoryBudgetBytes;
+    }
+
+    public void setWindowMemoryBudgetBytes(long windowMemoryBudgetBytes) {
+        this.windowMemoryBudgetBytes = windowMemoryBudgetBytes;
+    }
+
     // ==================== Debug Getters/Setters ====================
 
     public Boolean isDebugMode() {
@@ -6,14 +6,13 @@ import me.internalizable.numdrassl.api.event.EventManager;
 import me.internalizable.numdrassl.api.event.EventPriority;
 import me.internalizable.numdrassl.api.event.Subscribe;
 import me.internalizable.numdrassl.event.api.handler.EventTypeTracker;
+import me.internalizable.numdrassl.event.api.handler.HandlerInvokers;
 import me.internalizable.numdrassl.event.api.handler.HandlerRegistration;
 import me.internalizable.numdrassl.event.api.handler.UntargetedEventHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nonnull;
-import java.lang.invoke.MethodHandle;
-import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Method;
 import java.util.*;
 import java.util.concurrent.*;
@@ -29,22 +28,31 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
  *   <li>Event type hierarchy tracking</li>
  *   <li>Priority-based handler ordering</li>
  *   <li>Async event firing with CompletableFuture</li>
- *   <li>MethodHandle-based invocation for performance</li>
+ *   <li>Generated handler invokers that call {@code @Subscribe} methods directly</li>
  *   <li>Thread-safe handler registration</li>
  * </ul>
+ *
+ * <p>Each event class gets a handler chain: every applicable handler, including
+ * those for supertypes, in priority order. Chains are built on the first fire of a
+ * class and dropped whenever a handler is registered or unregistered, so firing is
+ * a lock-free array walk.</p>
  */
 public final class NumdrasslEventManager implements EventManager {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(NumdrasslEventManager.class);
-    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final HandlerRegistration[] NO_HANDLERS = new HandlerRegistration[0];
 
     private final EventTypeTracker eventTypeTracker = new EventTypeTracker();
     private final ReadWriteLock lock = new ReentrantReadWriteLock();
 
     private final Map<Class<?>, List<HandlerRegistration>> handlersByType = new ConcurrentHashMap<>();
+    // Built under the read lock, cleared under the write lock
+    private final Map<Class<?>, HandlerRegistration[]> chains = new ConcurrentHashMap<>();
     private final Map<Object, List<HandlerRegistration>> handlersByPlugin = new ConcurrentHashMap<>();
     private final Map<Object, List<HandlerRegistration>> handlersByListener = new ConcurrentHashMap<>();
 
+    private final List<Runnable> handlerChangeListeners = new CopyOnWriteArrayList<>();
+
     private final ExecutorService asyncExecutor;
     private final AtomicBoolean shutdown = new AtomicBoolean(false);
 
@@ -108,16 +116,7 @@ public final class NumdrasslEventManager implements EventManager {
         Class<?> eventType = method.getParameterTypes()[0];
 
         try {
-            method.setAccessible(true);
-            MethodHandle handle = LOOKUP.unreflect(method).bindTo(listener);
-
-            UntargetedEventHandler handler = event -> {
-                try {
-                    handle.invoke(event);
-                } catch (Throwable t) {
-                    throw new RuntimeException("Error invoking " + method.getName(), t);
-                }
-            };
+            UntargetedEventHandler handler = HandlerInvokers.create(listener, method);
 
             HandlerRegistration registration = new HandlerRegistration(
                 plugin, eventType, subscribe.priority(), handler, listener, method.getName()
@@ -128,8 +127,8 @@ public final class NumdrasslEventManager implements EventManager {
                 eventType.getSimpleName(), subscribe.priority());
 
             return registration;
-        } catch (IllegalAccessException e) {
-            LOGGER.error("Failed to create MethodHandle for {}.{}",
+        } catch (IllegalAccessException | IllegalStateException e) {
+            LOGGER.error("Failed to create invoker for {}.{}",
                 listener.getClass().getSimpleName(), method.getName(), e);
             return null;
         }
@@ -173,9 +172,11 @@ public final class NumdrasslEventManager implements EventManager {
             );
             handlers.add(registration);
             handlers.sort(Comparator.comparingInt(h -> h.getPriority().getValue()));
+            chains.clear();
         } finally {
             lock.writeLock().unlock();
         }
+        notifyHandlersChanged();
     }
 
     // ==================== Unregistration ====================
@@ -216,9 +217,11 @@ public final class NumdrasslEventManager implements EventManager {
                     handlersByType.remove(registration.getEventType());
                 }
             }
+            chains.clear();
         } finally {
             lock.writeLock().unlock();
         }
+        notifyHandlersChanged();
     }
 
     private void removeFromPluginTracking(HandlerRegistration reg) {
@@ -254,43 +257,47 @@ public final class NumdrasslEventManager implements EventManager {
     public <E> E fireSync(@Nonnull E event) {
         Objects.requireNonNull(event, "event");
 
-        List<HandlerRegistration> handlers = collectHandlers(event.getClass());
-        if (handlers.isEmpty()) {
-            return event;
-        }
-
-        handlers.sort(Comparator.comparingInt(h -> h.getPriority().getValue()));
-
-        for (HandlerRegistration handler : handlers) {
+        for (HandlerRegistration handler : chainFor(event.getClass())) {
             executeHandler(event, handler);
         }
 
         return event;
     }
 
-    private List<HandlerRegistration> collectHandlers(Class<?> eventType) {
+    private HandlerRegistration[] chainFor(Class<?> eventType) {
+        HandlerRegistration[] chain = chains.get(eventType);
+        return chain != null ? chain : buildChain(eventType);
+    }
+
+    private HandlerRegistration[] buildChain(Class<?> eventType) {
         Collection<Class<?>> eventTypes = eventTypeTracker.getFriendsOf(eventType);
-        List<HandlerRegistration> applicable = new ArrayList<>();
 
         lock.readLock().lock();
         try {
+            List<HandlerRegistration> applicable = new ArrayList<>();
             for (Class<?> type : eventTypes) {
                 List<HandlerRegistration> handlers = handlersByType.get(type);
                 if (handlers != null) {
                     applicable.addAll(handlers);
                 }
             }
+            applicable.sort(Comparator.comparingInt(h -> h.getPriority().getValue()));
+
+            HandlerRegistration[] chain = applicable.isEmpty()
+                ? NO_HANDLERS
+                : applicable.toArray(new HandlerRegistration[0]);
+            // Published while registrations are held still, so no stale chain survives a change
+            chains.put(eventType, chain);
+            return chain;
         } finally {
             lock.readLock().unlock();
         }
-
-        return applicable;
     }
 
     private void executeHandler(Object event, HandlerRegistration handler) {
         try {
             handler.getHandler().execute(event);
-        } catch (Exception e) {
+        } catch (Throwable e) {
             LOGGER.error("Error handling event {} in handler {} from plugin {}",
                 event.getClass().getSimpleName(),
                 handler.getMethodName(),
@@ -322,6 +329,33 @@ public final class NumdrasslEventManager implements EventManager {
         }
     }
 
+    /**
+     * Checks whether any handler would receive an event of the given type,
+     * including handlers registered for one of its supertypes.
+     */
+    public boolean hasHandlers(@Nonnull Class<?> eventType) {
+        Objects.requireNonNull(eventType, "eventType");
+        return chainFor(eventType).length > 0;
+    }
+
+    /**
+     * Registers a callback run after any handler is registered or unregistered.
+     */
+    public void addHandlerChangeListener(@Nonnull Runnable listener) {
+        Objects.requireNonNull(listener, "listener");
+        handlerChangeListeners.add(listener);
+    }
+
+    private void notifyHandlersChanged() {
+        for (Runnable listener : handlerChangeListeners) {
+            try {
+                listener.run();
+            } catch (Exception e) {
+                LOGGER.error("Error in handler change listener", e);
+            }
+        }
+    }
+
     @Nonnull
     public Set<Class<?>> getRegisteredEventTypes() {
         lock.readLock().lock();
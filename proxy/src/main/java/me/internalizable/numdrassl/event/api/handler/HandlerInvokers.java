@@ -0,0 +1,100 @@
+package me.internalizable.numdrassl.event.api.handler;
+
+import javax.annotation.Nonnull;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaConversionException;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.Objects;
+
+/**
+ * Creates the {@link UntargetedEventHandler}s that call {@code @Subscribe} methods.
+ *
+ * <p>When the listener class grants full-privilege access, the handler is a hidden
+ * class spun by {@link LambdaMetafactory} that calls the method directly, so the JIT
+ * can inline it like any other call. A listener loaded by a plugin class loader lives in
+ * another module, where the metafactory refuses to spin a class; it gets a handler
+ * around an exactly typed {@link MethodHandle}, which still skips the per-call argument
+ * adaptation of {@code MethodHandle.invoke}.</p>
+ */
+public final class HandlerInvokers {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final String EXECUTE_NAME = "execute";
+    private static final MethodType EXECUTE_TYPE = MethodType.methodType(void.class, Object.class);
+
+    private HandlerInvokers() {
+    }
+
+    /**
+     * Creates a handler that calls {@code method} on {@code listener}.
+     *
+     * @param listener the listener instance, ignored for static methods
+     * @param method   a method taking the event as its only parameter
+     * @throws IllegalAccessException if the method cannot be accessed
+     */
+    @Nonnull
+    public static UntargetedEventHandler create(@Nonnull Object listener, @Nonnull Method method)
+            throws IllegalAccessException {
+        Objects.requireNonNull(listener, "listener");
+        Objects.requireNonNull(method, "method");
+
+        MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(method.getDeclaringClass(), LOOKUP);
+        MethodHandle target = lookup.unreflect(method);
+        boolean isStatic = Modifier.isStatic(method.getModifiers());
+
+        if (lookup.hasFullPrivilegeAccess()) {
+            try {
+                return spin(lookup, target, method, isStatic ? null : listener);
+            } catch (LambdaConversionException e) {
+                // Signature the metafactory cannot adapt, e.g. a primitive parameter
+            }
+        }
+
+        MethodHandle bound = isStatic ? target : target.bindTo(listener);
+        return new ExactInvoker(bound.asType(EXECUTE_TYPE));
+    }
+
+    private static UntargetedEventHandler spin(MethodHandles.Lookup lookup, MethodHandle target,
+                                               Method method, Object receiver) throws LambdaConversionException {
+        MethodType factoryType = receiver == null
+            ? MethodType.methodType(UntargetedEventHandler.class)
+            : MethodType.methodType(UntargetedEventHandler.class, method.getDeclaringClass());
+        MethodType eventType = MethodType.methodType(void.class, method.getParameterTypes()[0]);
+
+        CallSite site = LambdaMetafactory.metafactory(
+            lookup, EXECUTE_NAME, factoryType, EXECUTE_TYPE, target, eventType);
+        try {
+            return receiver == null
+                ? (UntargetedEventHandler) site.getTarget().invoke()
+                : (UntargetedEventHandler) site.getTarget().invoke(receiver);
+        } catch (Throwable t) {
+            throw new IllegalStateException("Failed to create invoker for " + method.getName(), t);
+        }
+    }
+
+    private static final class ExactInvoker implements UntargetedEventHandler {
+
+        private final MethodHandle handle;
+
+        ExactInvoker(MethodHandle handle) {
+            this.handle = handle;
+        }
+
+        @Override
+        public void execute(Object event) throws Exception {
+            try {
+                handle.invokeExact(event);
+            } catch (Exception | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new UndeclaredThrowableException(t);
+            }
+        }
+    }
+}
@@ -7,6 +7,8 @@
  *       Metadata for registered event handlers</li>
  *   <li>{@link me.internalizable.numdrassl.event.api.handler.UntargetedEventHandler} -
  *       Type-erased handler interface</li>
+ *   <li>{@link me.internalizable.numdrassl.event.api.handler.HandlerInvokers} -
+ *       Generates handlers that call {@code @Subscribe} methods directly</li>
  *   <li>{@link me.internalizable.numdrassl.event.api.handler.EventTypeTracker} -
  *       Caches event type hierarchies for inheritance</li>
  * </ul>
@@ -4,6 +4,7 @@ import com.hypixel.hytale.protocol.Packet;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.util.List;
 
 /**
  * Represents a mapping from a protocol packet to a high-level API event.
@@ -25,6 +26,18 @@ public interface PacketEventMapping<P extends Packet, E> {
     @Nonnull
     Class<E> getEventClass();
 
+    /**
+     * Gets every event type this mapping may fire.
+     *
+     * <p>Used to decide whether the packet needs decoding at all: when no API handler
+     * is registered for any of these types, the packet is forwarded untouched.
+     * Override when {@link #getEventClass()} is a common supertype.</p>
+     */
+    @Nonnull
+    default List<Class<?>> getEventTypes() {
+        return List.of(getEventClass());
+    }
+
     /**
      * Creates an event from the packet.
      *
@@ -38,10 +51,13 @@ public interface PacketEventMapping<P extends Packet, E> {
     /**
      * Applies any changes from the event back to the packet.
      *
+     * <p>Returning {@code packet} itself means nothing changed, and its original bytes
+     * are forwarded. Return a new packet to forward a modified one.</p>
+     *
      * @param context the packet context
      * @param packet the original packet
      * @param event the processed event
-     * @return the modified packet, or null to cancel
+     * @return the packet to forward, or null to cancel
      */
     @Nullable
     P applyChanges(@Nonnull PacketContext context, @Nonnull P packet, @Nonnull E event);
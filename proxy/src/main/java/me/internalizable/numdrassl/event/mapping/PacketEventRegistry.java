@@ -1,12 +1,14 @@
 package me.internalizable.numdrassl.event.mapping;
 
 import com.hypixel.hytale.protocol.Packet;
+import com.hypixel.hytale.protocol.PacketRegistry;
 import me.internalizable.numdrassl.api.player.Player;
 import me.internalizable.numdrassl.event.api.NumdrasslEventManager;
 import me.internalizable.numdrassl.event.mapping.connection.ConnectMapping;
 import me.internalizable.numdrassl.event.mapping.connection.DisconnectMapping;
 import me.internalizable.numdrassl.event.mapping.interface_.ChatMessageMapping;
 import me.internalizable.numdrassl.event.mapping.interface_.ServerMessageMapping;
+import me.internalizable.numdrassl.event.packet.PacketEventManager;
 import me.internalizable.numdrassl.plugin.NumdrasslProxy;
 import me.internalizable.numdrassl.plugin.player.NumdrasslPlayer;
 import me.internalizable.numdrassl.session.ProxySession;
@@ -15,8 +17,10 @@ import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
@@ -29,16 +33,19 @@ public final class PacketEventRegistry {
     private final NumdrasslProxy apiProxy;
     private final NumdrasslEventManager eventManager;
     private final Map<Class<? extends Packet>, PacketEventMapping<?, ?>> mappings = new ConcurrentHashMap<>();
+    private final Set<Integer> claimedPacketIds = new HashSet<>();
 
     public PacketEventRegistry(@Nonnull NumdrasslProxy apiProxy, @Nonnull NumdrasslEventManager eventManager) {
         this.apiProxy = Objects.requireNonNull(apiProxy, "apiProxy");
         this.eventManager = Objects.requireNonNull(eventManager, "eventManager");
         registerDefaultMappings();
+        eventManager.addHandlerChangeListener(this::refreshClaims);
     }
 
     public <P extends Packet, E> void register(@Nonnull PacketEventMapping<P, E> mapping) {
         Objects.requireNonNull(mapping, "mapping");
         mappings.put(mapping.getPacketClass(), mapping);
+        refreshClaims();
         LOGGER.debug("Registered packet mapping: {} -> {}",
             mapping.getPacketClass().getSimpleName(),
             mapping.getEventClass().getSimpleName());
@@ -46,7 +53,46 @@ public final class PacketEventRegistry {
 
     public void unregister(@Nonnull Class<? extends Packet> packetClass) {
         Objects.requireNonNull(packetClass, "packetClass");
-        mappings.remove(packetClass);
+        if (mappings.remove(packetClass) != null) {
+            refreshClaims();
+        }
+    }
+
+    /**
+     * Claims the packet ids of mappings whose events currently have API handlers and
+     * releases the rest, so unobserved packets are forwarded without being decoded.
+     */
+    private synchronized void refreshClaims() {
+        Set<Integer> wanted = new HashSet<>();
+        for (PacketEventMapping<?, ?> mapping : mappings.values()) {
+            Integer packetId = PacketRegistry.getId(mapping.getPacketClass());
+            if (packetId != null && hasHandlers(mapping)) {
+                wanted.add(packetId);
+            }
+        }
+
+        PacketEventManager packetEvents = apiProxy.getCore().getEventManager();
+        for (Integer packetId : wanted) {
+            if (claimedPacketIds.add(packetId)) {
+                packetEvents.claimPacketId(packetId);
+            }
+        }
+        claimedPacketIds.removeIf(packetId -> {
+            if (wanted.contains(packetId)) {
+                return false;
+            }
+            packetEvents.releasePacketId(packetId);
+            return true;
+        });
+    }
+
+    private boolean hasHandlers(PacketEventMapping<?, ?> mapping) {
+        for (Class<?> eventType : mapping.getEventTypes()) {
+            if (eventManager.hasHandlers(eventType)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     public boolean hasMapping(@Nonnull Class<? extends Packet> packetClass) {
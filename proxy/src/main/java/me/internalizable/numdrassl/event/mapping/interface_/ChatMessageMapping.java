@@ -9,6 +9,7 @@ import me.internalizable.numdrassl.event.mapping.PacketEventMapping;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.util.List;
 import java.util.Objects;
 
 /**
@@ -30,6 +31,12 @@ public final class ChatMessageMapping implements PacketEventMapping<ChatMessage,
         return Object.class; // Can be PlayerChatEvent or PlayerCommandEvent
     }
 
+    @Override
+    @Nonnull
+    public List<Class<?>> getEventTypes() {
+        return List.of(PlayerChatEvent.class, PlayerCommandEvent.class);
+    }
+
     @Override
     @Nullable
     public Object createEvent(@Nonnull PacketContext context, @Nonnull ChatMessage packet) {
@@ -59,16 +66,18 @@ public final class ChatMessageMapping implements PacketEventMapping<ChatMessage,
         Objects.requireNonNull(packet, "packet");
         Objects.requireNonNull(event, "event");
 
+        String message = packet.message;
         if (event instanceof PlayerCommandEvent cmdEvent) {
             if (!cmdEvent.shouldForwardToServer()) {
                 return null;
             }
-            packet.message = cmdEvent.getCommandLine();
+            message = cmdEvent.getCommandLine();
         } else if (event instanceof PlayerChatEvent chatEvent) {
-            packet.message = chatEvent.getMessage();
+            message = chatEvent.getMessage();
         }
 
-        return packet;
+        // A new packet only when the text changed, so unchanged messages keep their bytes
+        return Objects.equals(message, packet.message) ? packet : new ChatMessage(message);
     }
 
     @Override
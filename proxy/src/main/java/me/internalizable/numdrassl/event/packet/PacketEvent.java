@@ -9,6 +9,11 @@ import java.util.Objects;
 /**
  * Represents a packet event that can be intercepted and modified.
  *
+ * <p>An event whose packet was neither replaced through {@link #setPacket} nor marked
+ * with {@link #markModified()} is forwarded as the frame it arrived in, without
+ * re-encoding. The event is marked automatically after any listener that does not
+ * declare itself read-only through {@link PacketListener#mutatesPackets()}.</p>
+ *
  * @param <T> the packet type
  */
 public final class PacketEvent<T extends Packet> {
@@ -17,6 +22,7 @@ public final class PacketEvent<T extends Packet> {
     private final PacketDirection direction;
     private T packet;
     private boolean cancelled;
+    private boolean modified;
 
     public PacketEvent(
             @Nonnull ProxySession session,
@@ -43,8 +49,27 @@ public final class PacketEvent<T extends Packet> {
         return packet;
     }
 
+    /**
+     * Replaces the packet. Setting a different instance marks the event as modified.
+     */
     public void setPacket(@Nonnull T packet) {
-        this.packet = Objects.requireNonNull(packet, "packet");
+        Objects.requireNonNull(packet, "packet");
+        if (packet != this.packet) {
+            this.packet = packet;
+            this.modified = true;
+        }
+    }
+
+    /**
+     * Marks the packet as changed in place, so it is re-encoded instead of being
+     * forwarded as its original bytes.
+     */
+    public void markModified() {
+        this.modified = true;
+    }
+
+    public boolean isModified() {
+        return modified;
     }
 
     public boolean isCancelled() {
@@ -1,6 +1,10 @@
 package me.internalizable.numdrassl.event.packet;
 
 import com.hypixel.hytale.protocol.Packet;
+import com.hypixel.hytale.protocol.packets.auth.AuthToken;
+import com.hypixel.hytale.protocol.packets.auth.ConnectAccept;
+import com.hypixel.hytale.protocol.packets.connection.Connect;
+import com.hypixel.hytale.protocol.packets.connection.Disconnect;
 import me.internalizable.numdrassl.session.ProxySession;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -8,31 +12,138 @@ import org.slf4j.LoggerFactory;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Manages internal packet event listeners and dispatches packet events.
+ *
+ * <p>Also maintains the per-packet-id interest table consulted by the decoders:
+ * packets nobody claims are forwarded as raw frames instead of being decoded.</p>
  */
 public final class PacketEventManager {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(PacketEventManager.class);
 
+    /**
+     * Packets the proxy's own handlers act on; these are always decoded.
+     */
+    private static final int[] PROXY_HANDLED_PACKETS = {
+        Connect.PACKET_ID, Disconnect.PACKET_ID, AuthToken.PACKET_ID, ConnectAccept.PACKET_ID
+    };
+
     private final List<PacketListener> listeners = new CopyOnWriteArrayList<>();
+    private final Map<Integer, AtomicInteger> claimedPacketIds = new ConcurrentHashMap<>();
+    private final AtomicInteger wildcardListeners = new AtomicInteger();
+
+    // Interest table indexed by packet id, rebuilt whenever claims change
+    private volatile boolean[] interestTable = new boolean[0];
+    private volatile boolean claimAll = false;
+
+    public PacketEventManager() {
+        for (int packetId : PROXY_HANDLED_PACKETS) {
+            claimPacketId(packetId);
+        }
+    }
 
     public void registerListener(@Nonnull PacketListener listener) {
         Objects.requireNonNull(listener, "listener");
         listeners.add(listener);
+        updateListenerClaims(listener, true);
         LOGGER.info("Registered packet listener: {}", listener.getClass().getSimpleName());
     }
 
     public void unregisterListener(@Nonnull PacketListener listener) {
         Objects.requireNonNull(listener, "listener");
-        listeners.remove(listener);
+        if (listeners.remove(listener)) {
+            updateListenerClaims(listener, false);
+        }
     }
 
     public void clearListeners() {
-        listeners.clear();
+        for (PacketListener listener : listeners) {
+            unregisterListener(listener);
+        }
+    }
+
+    private void updateListenerClaims(PacketListener listener, boolean claim) {
+        int[] packetIds = listener.getClaimedPacketIds();
+        if (packetIds == null) {
+            if (claim) {
+                wildcardListeners.incrementAndGet();
+            } else {
+                wildcardListeners.decrementAndGet();
+            }
+            rebuildInterestTable();
+            return;
+        }
+
+        for (int packetId : packetIds) {
+            if (claim) {
+                claimPacketId(packetId);
+            } else {
+                releasePacketId(packetId);
+            }
+        }
+    }
+
+    // ==================== Packet Claims ====================
+
+    /**
+     * Marks a packet id as needing full decoding.
+     * Claims are counted, so every call must be paired with {@link #releasePacketId(int)}.
+     *
+     * @param packetId the packet id to claim
+     */
+    public void claimPacketId(int packetId) {
+        claimedPacketIds.computeIfAbsent(packetId, id -> new AtomicInteger()).incrementAndGet();
+        rebuildInterestTable();
+    }
+
+    /**
+     * Releases a claim previously taken with {@link #claimPacketId(int)}.
+     *
+     * @param packetId the packet id to release
+     */
+    public void releasePacketId(int packetId) {
+        claimedPacketIds.computeIfPresent(packetId, (id, count) -> count.decrementAndGet() <= 0 ? null : count);
+        rebuildInterestTable();
+    }
+
+    /**
+     * Checks whether a proxy handler, listener or mapping is interested in a packet id.
+     *
+     * <p>Called for every frame by the decoders, so this is a plain array lookup.</p>
+     *
+     * @param packetId the packet id
+     * @return true if frames with this id must be decoded
+     */
+    public boolean isPacketClaimed(int packetId) {
+        if (claimAll) {
+            return true;
+        }
+        boolean[] table = interestTable;
+        return packetId >= 0 && packetId < table.length && table[packetId];
+    }
+
+    private synchronized void rebuildInterestTable() {
+        int maxId = -1;
+        for (int packetId : claimedPacketIds.keySet()) {
+            maxId = Math.max(maxId, packetId);
+        }
+
+        boolean[] table = new boolean[maxId + 1];
+        for (int packetId : claimedPacketIds.keySet()) {
+            if (packetId >= 0) {
+                table[packetId] = true;
+            }
+        }
+
+        interestTable = table;
+        claimAll = wildcardListeners.get() > 0;
     }
 
     @Nullable
@@ -49,12 +160,38 @@ public final class PacketEventManager {
         return dispatchPacket(session, packet, PacketDirection.SERVER_TO_CLIENT, false);
     }
 
+    /**
+     * Runs a packet through the listeners and returns the resulting event.
+     *
+     * <p>Used where the packet's original frame is at hand: if the event is neither
+     * cancelled nor {@link PacketEvent#isModified() modified}, the frame can be forwarded
+     * instead of re-encoding the packet.</p>
+     */
+    @Nonnull
+    public <T extends Packet> PacketEvent<T> firePacket(
+            @Nonnull ProxySession session, @Nonnull T packet, @Nonnull PacketDirection direction) {
+        Objects.requireNonNull(session, "session");
+        Objects.requireNonNull(packet, "packet");
+        Objects.requireNonNull(direction, "direction");
+        return firePacket(session, packet, direction, direction == PacketDirection.CLIENT_TO_SERVER);
+    }
+
     private <T extends Packet> T dispatchPacket(
             ProxySession session,
             T packet,
             PacketDirection direction,
             boolean isClientPacket) {
 
+        PacketEvent<T> event = firePacket(session, packet, direction, isClientPacket);
+        return event.isCancelled() ? null : event.getPacket();
+    }
+
+    private <T extends Packet> PacketEvent<T> firePacket(
+            ProxySession session,
+            T packet,
+            PacketDirection direction,
+            boolean isClientPacket) {
+
         PacketEvent<T> event = new PacketEvent<>(session, direction, packet);
 
         for (PacketListener listener : listeners) {
@@ -64,9 +201,13 @@ public final class PacketEventManager {
                     : listener.onServerPacket(event);
 
                 if (result == null || event.isCancelled()) {
-                    return null;
+                    event.setCancelled(true);
+                    return event;
                 }
                 event.setPacket(result);
+                if (listener.mutatesPackets()) {
+                    event.markModified();
+                }
             } catch (Exception e) {
                 LOGGER.error("Error in packet listener {} processing {} packet",
                     listener.getClass().getSimpleName(),
@@ -74,7 +215,7 @@ public final class PacketEventManager {
             }
         }
 
-        return event.getPacket();
+        return event;
     }
 
     public void dispatchSessionCreated(@Nonnull ProxySession session) {
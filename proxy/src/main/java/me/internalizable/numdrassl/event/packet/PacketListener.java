@@ -4,11 +4,17 @@ import com.hypixel.hytale.protocol.Packet;
 import me.internalizable.numdrassl.session.ProxySession;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 /**
  * Listener interface for packet events.
  *
  * <p>Implement this to intercept, modify, or cancel packets flowing through the proxy.</p>
+ *
+ * <p>A packet is re-encoded after passing through a listener unless the listener
+ * declares through {@link #mutatesPackets()} that it never edits packets in place. Only
+ * when every listener that saw a packet is read-only, and none replaced it or called
+ * {@link PacketEvent#markModified()}, is it forwarded as its original bytes.</p>
  */
 public interface PacketListener {
 
@@ -16,7 +22,7 @@ public interface PacketListener {
      * Called when a packet is received from a client heading to the backend server.
      *
      * @param event the packet event
-     * @return the packet to forward (may be modified), or null to cancel
+     * @return the packet to forward, or null to cancel
      */
     default <T extends Packet> T onClientPacket(@Nonnull PacketEvent<T> event) {
         return event.isCancelled() ? null : event.getPacket();
@@ -26,12 +32,39 @@ public interface PacketListener {
      * Called when a packet is received from the backend server heading to the client.
      *
      * @param event the packet event
-     * @return the packet to forward (may be modified), or null to cancel
+     * @return the packet to forward, or null to cancel
      */
     default <T extends Packet> T onServerPacket(@Nonnull PacketEvent<T> event) {
         return event.isCancelled() ? null : event.getPacket();
     }
 
+    /**
+     * Returns whether this listener may edit the fields of the packets it receives.
+     *
+     * <p>Return {@code false} only if the listener never changes a packet in place; it
+     * may still return a different instance or call {@link PacketEvent#markModified()}.
+     * Packets seen only by such listeners are forwarded without re-encoding.</p>
+     *
+     * @return true (the default) if packets must be re-encoded after this listener
+     */
+    default boolean mutatesPackets() {
+        return true;
+    }
+
+    /**
+     * Returns the packet ids this listener wants to receive.
+     *
+     * <p>Frames of packet ids nobody has claimed are forwarded without being decoded,
+     * so {@link #onClientPacket} and {@link #onServerPacket} only see claimed packets.
+     * Listeners that only inspect a few packet types should return their ids here.</p>
+     *
+     * @return the claimed packet ids, or {@code null} (the default) for every known packet
+     */
+    @Nullable
+    default int[] getClaimedPacketIds() {
+        return null;
+    }
+
     /**
      * Called when a new session is established (client connected).
      */
@@ -6,6 +6,12 @@ import com.hypixel.hytale.protocol.packets.connection.Disconnect;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.incubator.codec.quic.QuicStreamChannel;
+import me.internalizable.numdrassl.event.packet.PacketDirection;
+import me.internalizable.numdrassl.event.packet.PacketEvent;
+import me.internalizable.numdrassl.pipeline.codec.DecodedPacket;
+import me.internalizable.numdrassl.pipeline.codec.FrameChunk;
+import me.internalizable.numdrassl.pipeline.codec.ProxyPacketDecoder;
 import me.internalizable.numdrassl.profiling.ProxyMetrics;
 import me.internalizable.numdrassl.server.ProxyCore;
 import me.internalizable.numdrassl.session.ProxySession;
@@ -14,6 +20,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.util.Objects;
 
 /**
@@ -30,6 +37,9 @@ public final class BackendPacketHandler extends SimpleChannelInboundHandler<Obje
     private final ProxyCore proxyCore;
     private final ProxySession session;
 
+    // Whether a read burst has started since the last channelReadComplete
+    private boolean reading;
+
     public BackendPacketHandler(@Nonnull ProxyCore proxyCore, @Nonnull ProxySession session) {
         this.proxyCore = Objects.requireNonNull(proxyCore, "proxyCore");
         this.session = Objects.requireNonNull(session, "session");
@@ -37,12 +47,32 @@ public final class BackendPacketHandler extends SimpleChannelInboundHandler<Obje
 
     @Override
     protected void channelRead0(ChannelHandlerContext ctx, Object msg) throws Exception {
+        if (!reading) {
+            reading = true;
+            session.beginReadToClient();
+        }
+
+        if (msg instanceof FrameChunk chunk) {
+            if (chunk.frameSize() > 0) {
+                ProxyMetrics.getInstance().recordPacketFromBackend("RawPacket", chunk.frameSize());
+            }
+            session.sendChunkToClient(chunk.content().retain(), chunk.frameSize(), chunk.isLast());
+            return;
+        }
+
         if (msg instanceof ByteBuf raw) {
             ProxyMetrics.getInstance().recordPacketFromBackend("RawPacket", raw.readableBytes());
             handleRawPacket(ctx, raw);
             return;
         }
 
+        if (msg instanceof DecodedPacket decoded) {
+            Packet packet = decoded.packet();
+            ProxyMetrics.getInstance().recordPacketFromBackend(packet.getClass().getSimpleName(), 0);
+            dispatchPacket(packet, decoded.content());
+            return;
+        }
+
         if (!(msg instanceof Packet packet)) {
             LOGGER.warn("Session {}: Unknown message type from backend: {}",
                 session.getSessionId(), msg.getClass().getName());
@@ -50,7 +80,7 @@ public final class BackendPacketHandler extends SimpleChannelInboundHandler<Obje
         }
 
         ProxyMetrics.getInstance().recordPacketFromBackend(packet.getClass().getSimpleName(), 0);
-        dispatchPacket(packet);
+        dispatchPacket(packet, null);
     }
 
     // ==================== Packet Routing ====================
@@ -63,20 +93,30 @@ public final class BackendPacketHandler extends SimpleChannelInboundHandler<Obje
         session.sendToClient(raw.retain());
     }
 
-    private void dispatchPacket(Packet packet) {
+    private void dispatchPacket(Packet packet, @Nullable ByteBuf frame) {
         if (packet instanceof ConnectAccept accept) {
             handleConnectAccept(accept);
         } else if (packet instanceof Disconnect disconnect) {
-            handleDisconnect(disconnect);
+            handleDisconnect(disconnect, frame);
         } else {
-            forwardToClient(packet);
+            forwardToClient(packet, frame);
         }
     }
 
-    private void forwardToClient(Packet packet) {
-        Packet toForward = proxyCore.getEventManager().dispatchServerPacket(session, packet);
-        if (toForward != null) {
-            session.sendToClient(toForward);
+    /**
+     * Runs a packet through the listeners and forwards the result. An unmodified
+     * packet is forwarded as its original frame instead of being re-encoded.
+     */
+    private void forwardToClient(Packet packet, @Nullable ByteBuf frame) {
+        PacketEvent<Packet> event = proxyCore.getEventManager()
+            .firePacket(session, packet, PacketDirection.SERVER_TO_CLIENT);
+        if (event.isCancelled()) {
+            return;
+        }
+        if (!event.isModified() && frame != null) {
+            session.sendToClient(frame.retain());
+        } else {
+            session.sendToClient(event.getPacket());
         }
     }
 
@@ -90,6 +130,12 @@ public final class BackendPacketHandler extends SimpleChannelInboundHandler<Obje
 
         fireApiEvents();
 
+        if (proxyCore.getConfig().isPassthroughMode()) {
+            enablePassthrough();
+        }
+
+        StreamPairHandler.pairPendingClientStreams(session, proxyCore.getEventManager(), proxyCore.getConfig());
+
         // Do NOT forward ConnectAccept to client - they already completed auth with proxy
         LOGGER.debug("Session {}: Not forwarding ConnectAccept to client", session.getSessionId());
     }
@@ -109,7 +155,28 @@ public final class BackendPacketHandler extends SimpleChannelInboundHandler<Obje
         eventBridge.fireServerConnectedEvent(session, null);
     }
 
-    private void handleDisconnect(Disconnect disconnect) {
+    /**
+     * Switches both streams of the session to frame relaying. The client stream keeps
+     * its relay across server transfers; each new backend stream is converted here.
+     */
+    private void enablePassthrough() {
+        boolean debugMode = proxyCore.getConfig().isDebugMode();
+        int cutThroughThreshold = proxyCore.getConfig().getCutThroughThresholdBytes();
+
+        QuicStreamChannel clientStream = session.getClientStream();
+        if (clientStream != null) {
+            PassthroughRelayHandler.install(clientStream, session, proxyCore.getEventManager(),
+                PacketDirection.CLIENT_TO_SERVER, debugMode, cutThroughThreshold);
+        }
+
+        QuicStreamChannel backendStream = session.getBackendStream();
+        if (backendStream != null) {
+            PassthroughRelayHandler.install(backendStream, session, proxyCore.getEventManager(),
+                PacketDirection.SERVER_TO_CLIENT, debugMode, cutThroughThreshold);
+        }
+    }
+
+    private void handleDisconnect(Disconnect disconnect, @Nullable ByteBuf frame) {
         LOGGER.info("Session {}: Backend disconnecting: {}", session.getSessionId(), disconnect.reason);
 
         if (isTransferring()) {
@@ -117,7 +184,7 @@ public final class BackendPacketHandler extends SimpleChannelInboundHandler<Obje
             return;
         }
 
-        forwardToClient(disconnect);
+        forwardToClient(disconnect, frame);
         session.disconnect("Backend disconnected: " + disconnect.reason);
     }
 
@@ -133,17 +200,38 @@ public final class BackendPacketHandler extends SimpleChannelInboundHandler<Obje
         super.channelActive(ctx);
     }
 
+    @Override
+    public void channelReadComplete(ChannelHandlerContext ctx) throws Exception {
+        reading = false;
+        session.flushToClient();
+        super.channelReadComplete(ctx);
+    }
+
+    @Override
+    public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+        session.onBackendWritabilityChanged();
+        super.channelWritabilityChanged(ctx);
+    }
+
     @Override
     public void channelInactive(ChannelHandlerContext ctx) throws Exception {
         LOGGER.info("Session {}: Backend stream closed", session.getSessionId());
 
-        if (shouldDisconnectClient()) {
+        // The client already received part of a frame, so its stream cannot be resumed
+        if (isMidFrame(ctx)) {
+            session.disconnect("Backend connection lost mid-packet");
+        } else if (shouldDisconnectClient()) {
             session.disconnect("Backend connection lost");
         }
 
         super.channelInactive(ctx);
     }
 
+    private boolean isMidFrame(ChannelHandlerContext ctx) {
+        ProxyPacketDecoder decoder = ctx.pipeline().get(ProxyPacketDecoder.class);
+        return decoder != null && decoder.remainingFrameBytes() > 0;
+    }
+
     private boolean shouldDisconnectClient() {
         SessionState state = session.getState();
         return state != SessionState.DISCONNECTED
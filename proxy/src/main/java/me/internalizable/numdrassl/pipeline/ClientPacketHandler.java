@@ -7,6 +7,10 @@ import com.hypixel.hytale.protocol.packets.connection.Disconnect;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
+import me.internalizable.numdrassl.event.packet.PacketDirection;
+import me.internalizable.numdrassl.event.packet.PacketEvent;
+import me.internalizable.numdrassl.pipeline.codec.DecodedPacket;
+import me.internalizable.numdrassl.pipeline.codec.FrameChunk;
 import me.internalizable.numdrassl.pipeline.handler.BackendConnectionHandler;
 import me.internalizable.numdrassl.pipeline.handler.ClientAuthenticationHandler;
 import me.internalizable.numdrassl.profiling.ProxyMetrics;
@@ -17,6 +21,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.util.Objects;
 
 /**
@@ -37,6 +42,11 @@ public final class ClientPacketHandler extends SimpleChannelInboundHandler<Objec
     private final ClientAuthenticationHandler authHandler;
     private final BackendConnectionHandler connectionHandler;
 
+    // Whether the rest of the frame currently being streamed is dropped
+    private boolean droppingFrame;
+    // Whether a read burst has started since the last channelReadComplete
+    private boolean reading;
+
     public ClientPacketHandler(@Nonnull ProxyCore proxyCore, @Nonnull ProxySession session) {
         this.proxyCore = Objects.requireNonNull(proxyCore, "proxyCore");
         this.session = Objects.requireNonNull(session, "session");
@@ -46,19 +56,36 @@ public final class ClientPacketHandler extends SimpleChannelInboundHandler<Objec
 
     @Override
     protected void channelRead0(ChannelHandlerContext ctx, Object msg) throws Exception {
+        if (!reading) {
+            reading = true;
+            session.beginReadToBackend();
+        }
+
+        if (msg instanceof FrameChunk chunk) {
+            handleFrameChunk(chunk);
+            return;
+        }
+
         if (msg instanceof ByteBuf raw) {
             ProxyMetrics.getInstance().recordPacketFromClient("RawPacket", raw.readableBytes());
             handleRawPacket(raw);
             return;
         }
 
+        if (msg instanceof DecodedPacket decoded) {
+            Packet packet = decoded.packet();
+            ProxyMetrics.getInstance().recordPacketFromClient(packet.getClass().getSimpleName(), 0);
+            dispatchPacket(packet, decoded.content());
+            return;
+        }
+
         if (!(msg instanceof Packet packet)) {
             LOGGER.warn("Session {}: Unknown message type from client: {}",
                 session.getSessionId(), msg.getClass().getName());
             return;
         }
         ProxyMetrics.getInstance().recordPacketFromClient(packet.getClass().getSimpleName(), 0);
-        dispatchPacket(packet);
+        dispatchPacket(packet, null);
     }
 
     // ==================== Packet Routing ====================
@@ -72,43 +99,70 @@ public final class ClientPacketHandler extends SimpleChannelInboundHandler<Objec
         }
     }
 
-    private void dispatchPacket(Packet packet) {
+    private void handleFrameChunk(FrameChunk chunk) {
+        // The whole frame goes to the backend or none of it does
+        if (chunk.frameSize() > 0) {
+            ProxyMetrics.getInstance().recordPacketFromClient("RawPacket", chunk.frameSize());
+            droppingFrame = session.getState() != SessionState.CONNECTED;
+            if (droppingFrame) {
+                LOGGER.debug("Session {}: Dropping streamed packet - not connected (state={})",
+                    session.getSessionId(), session.getState());
+            }
+        }
+
+        if (!droppingFrame) {
+            session.sendChunkToBackend(chunk.content().retain(), chunk.frameSize(), chunk.isLast());
+        }
+    }
+
+    private void dispatchPacket(Packet packet, @Nullable ByteBuf frame) {
         if (packet instanceof Connect connect) {
             authHandler.handleConnect(connect);
         } else if (packet instanceof AuthToken authToken) {
             authHandler.handleAuthToken(authToken);
         } else if (packet instanceof Disconnect disconnect) {
-            handleDisconnect(disconnect);
+            handleDisconnect(disconnect, frame);
         } else {
-            forwardToBackend(packet);
+            forwardToBackend(packet, frame);
         }
     }
 
-    private void handleDisconnect(Disconnect disconnect) {
+    private void handleDisconnect(Disconnect disconnect, @Nullable ByteBuf frame) {
         LOGGER.info("Session {}: Client disconnecting", session.getSessionId());
 
         if (session.getState() == SessionState.CONNECTED) {
-            Packet toForward = proxyCore.getEventManager().dispatchClientPacket(session, disconnect);
-            if (toForward != null) {
-                session.sendToBackend(toForward);
-            }
+            dispatchToBackend(disconnect, frame);
         }
 
         session.disconnect("Client disconnected");
     }
 
-    private void forwardToBackend(Packet packet) {
+    private void forwardToBackend(Packet packet, @Nullable ByteBuf frame) {
         if (session.getState() == SessionState.CONNECTED) {
-            Packet toForward = proxyCore.getEventManager().dispatchClientPacket(session, packet);
-            if (toForward != null) {
-                session.sendToBackend(toForward);
-            }
+            dispatchToBackend(packet, frame);
         } else {
             LOGGER.debug("Session {}: Dropping packet {} - not connected (state={})",
                 session.getSessionId(), packet.getClass().getSimpleName(), session.getState());
         }
     }
 
+    /**
+     * Runs a packet through the listeners and forwards the result. An unmodified
+     * packet is forwarded as its original frame instead of being re-encoded.
+     */
+    private void dispatchToBackend(Packet packet, @Nullable ByteBuf frame) {
+        PacketEvent<Packet> event = proxyCore.getEventManager()
+            .firePacket(session, packet, PacketDirection.CLIENT_TO_SERVER);
+        if (event.isCancelled()) {
+            return;
+        }
+        if (!event.isModified() && frame != null) {
+            session.sendToBackend(frame.retain());
+        } else {
+            session.sendToBackend(event.getPacket());
+        }
+    }
+
     // ==================== Channel Lifecycle ====================
 
     @Override
@@ -116,6 +170,19 @@ public final class ClientPacketHandler extends SimpleChannelInboundHandler<Objec
         super.channelActive(ctx);
     }
 
+    @Override
+    public void channelReadComplete(ChannelHandlerContext ctx) throws Exception {
+        reading = false;
+        session.flushToBackend();
+        super.channelReadComplete(ctx);
+    }
+
+    @Override
+    public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+        session.onClientWritabilityChanged();
+        super.channelWritabilityChanged(ctx);
+    }
+
     @Override
     public void channelInactive(ChannelHandlerContext ctx) throws Exception {
         LOGGER.info("Session {}: Client stream closed", session.getSessionId());
@@ -0,0 +1,269 @@
+package me.internalizable.numdrassl.pipeline;
+
+import com.hypixel.hytale.protocol.Packet;
+import com.hypixel.hytale.protocol.PacketRegistry;
+import com.hypixel.hytale.protocol.io.PacketIO;
+import com.hypixel.hytale.protocol.io.PacketStatsRecorder;
+import com.hypixel.hytale.protocol.io.ProtocolException;
+import com.hypixel.hytale.protocol.packets.connection.Disconnect;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPipeline;
+import io.netty.handler.codec.ByteToMessageDecoder;
+import io.netty.incubator.codec.quic.QuicStreamChannel;
+import me.internalizable.numdrassl.event.packet.PacketDirection;
+import me.internalizable.numdrassl.event.packet.PacketEventManager;
+import me.internalizable.numdrassl.pipeline.codec.DecodedPacket;
+import me.internalizable.numdrassl.pipeline.codec.ProxyPacketDecoder;
+import me.internalizable.numdrassl.profiling.ProxyMetrics;
+import me.internalizable.numdrassl.session.ProxySession;
+import me.internalizable.numdrassl.session.SessionState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Frame-scanning relay used in passthrough mode once a session is connected.
+ *
+ * <p>Replaces {@link ProxyPacketDecoder} on a stream. Only the 8-byte frame header is
+ * read: frames whose packet id has not been claimed through
+ * {@link PacketEventManager#isPacketClaimed(int)} are written to the paired stream as
+ * retained slices, skipping decoding, event dispatch and re-encoding. Claimed ids (which
+ * always include {@link Disconnect}) are decoded and handed to the stream's packet
+ * handler as {@link DecodedPacket}s.</p>
+ *
+ * <p>Unclaimed frames at or above the cut-through threshold are not buffered whole.
+ * Their bytes are written to the paired stream in chunks as they arrive.</p>
+ */
+public final class PassthroughRelayHandler extends ByteToMessageDecoder {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PassthroughRelayHandler.class);
+
+    private static final String HANDLER_NAME = "passthrough-relay";
+    private static final int HEADER_SIZE = 8;           // 4 bytes length + 4 bytes packet ID
+    private static final int MAX_PAYLOAD_SIZE = 100_000_000; // 100MB
+
+    private final ProxySession session;
+    private final PacketEventManager eventManager;
+    private final PacketDirection direction;
+    private final boolean debugMode;
+    private final int cutThroughThreshold;
+
+    // Bytes of the current cut-through frame still to be relayed, 0 between frames
+    private int remainingFrameBytes;
+    // Whether the rest of the frame currently being streamed is dropped
+    private boolean droppingFrame;
+    // Whether a read burst has started since the last channelReadComplete
+    private boolean reading;
+
+    private PassthroughRelayHandler(
+            @Nonnull ProxySession session,
+            @Nonnull PacketEventManager eventManager,
+            @Nonnull PacketDirection direction,
+            boolean debugMode,
+            int cutThroughThreshold) {
+        this.session = Objects.requireNonNull(session, "session");
+        this.eventManager = Objects.requireNonNull(eventManager, "eventManager");
+        this.direction = Objects.requireNonNull(direction, "direction");
+        this.debugMode = debugMode;
+        this.cutThroughThreshold = cutThroughThreshold;
+    }
+
+    /**
+     * Swaps the {@link ProxyPacketDecoder} of a stream for a passthrough relay.
+     *
+     * <p>The swap runs on the stream's event loop. Bytes already buffered by the decoder
+     * are handed over to the relay, so no partial frame is lost. A frame the decoder was
+     * streaming is finished by the relay. Streams that already relay are left untouched.</p>
+     *
+     * @param stream the stream to convert
+     * @param session the owning session
+     * @param eventManager the packet event manager holding packet claims
+     * @param direction the direction of packets read from {@code stream}
+     * @param debugMode whether to log relayed frames
+     * @param cutThroughThreshold minimum payload size to relay in chunks, 0 to always buffer
+     */
+    public static void install(
+            @Nonnull QuicStreamChannel stream,
+            @Nonnull ProxySession session,
+            @Nonnull PacketEventManager eventManager,
+            @Nonnull PacketDirection direction,
+            boolean debugMode,
+            int cutThroughThreshold) {
+
+        Objects.requireNonNull(stream, "stream");
+        PassthroughRelayHandler relay = new PassthroughRelayHandler(
+            session, eventManager, direction, debugMode, cutThroughThreshold);
+
+        stream.eventLoop().execute(() -> {
+            ChannelPipeline pipeline = stream.pipeline();
+            ProxyPacketDecoder decoder = pipeline.get(ProxyPacketDecoder.class);
+            if (!stream.isActive()
+                    || pipeline.get(PassthroughRelayHandler.class) != null
+                    || decoder == null) {
+                return;
+            }
+
+            relay.remainingFrameBytes = decoder.remainingFrameBytes();
+            pipeline.replace(ProxyPacketDecoder.class, HANDLER_NAME, relay);
+            LOGGER.debug("Session {}: Passthrough relay enabled for {}", session.getSessionId(), direction);
+        });
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        // Relayed frames are flushed by the stream's packet handler at read complete
+        if (!reading) {
+            reading = true;
+            if (direction == PacketDirection.CLIENT_TO_SERVER) {
+                session.beginReadToBackend();
+            } else {
+                session.beginReadToClient();
+            }
+        }
+        super.channelRead(ctx, msg);
+    }
+
+    @Override
+    public void channelReadComplete(ChannelHandlerContext ctx) throws Exception {
+        reading = false;
+        super.channelReadComplete(ctx);
+    }
+
+    @Override
+    protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) {
+        if (remainingFrameBytes > 0) {
+            relayChunk(in, 0);
+            return;
+        }
+
+        if (in.readableBytes() < HEADER_SIZE) {
+            return;
+        }
+
+        int readerIndex = in.readerIndex();
+        int payloadLength = in.getIntLE(readerIndex);
+        if (payloadLength < 0 || payloadLength > MAX_PAYLOAD_SIZE) {
+            LOGGER.error("[{}] Invalid payload length: {}", direction, payloadLength);
+            in.skipBytes(in.readableBytes());
+            ctx.close();
+            return;
+        }
+
+        int frameSize = HEADER_SIZE + payloadLength;
+        int packetId = in.getIntLE(readerIndex + 4);
+        PacketRegistry.PacketInfo packetInfo = eventManager.isPacketClaimed(packetId)
+            ? PacketRegistry.getById(packetId)
+            : null;
+
+        if (in.readableBytes() < frameSize) {
+            if (packetInfo == null && cutThroughThreshold > 0 && payloadLength >= cutThroughThreshold) {
+                if (debugMode) {
+                    LOGGER.debug("Session {}: Streaming {} frame id={} ({} bytes)",
+                        session.getSessionId(), direction, packetId, frameSize);
+                }
+                remainingFrameBytes = frameSize;
+                relayChunk(in, frameSize);
+            }
+            return;
+        }
+
+        if (packetInfo == null) {
+            relay(in.readRetainedSlice(frameSize), packetId);
+        } else {
+            decodeClaimed(ctx, in, out, payloadLength, packetInfo);
+        }
+    }
+
+    // ==================== Relaying ====================
+
+    private void relay(ByteBuf frame, int packetId) {
+        int bytes = frame.readableBytes();
+
+        if (debugMode) {
+            LOGGER.debug("Session {}: Relaying {} frame id={} ({} bytes)",
+                session.getSessionId(), direction, packetId, bytes);
+        }
+
+        if (direction == PacketDirection.CLIENT_TO_SERVER) {
+            ProxyMetrics.getInstance().recordPacketFromClient("RawPacket", bytes);
+            if (session.getState() != SessionState.CONNECTED) {
+                frame.release();
+                return;
+            }
+            session.sendToBackend(frame);
+        } else {
+            ProxyMetrics.getInstance().recordPacketFromBackend("RawPacket", bytes);
+            session.sendToClient(frame);
+        }
+    }
+
+    private void relayChunk(ByteBuf in, int frameSize) {
+        int length = Math.min(in.readableBytes(), remainingFrameBytes);
+        if (length == 0) {
+            return;
+        }
+        remainingFrameBytes -= length;
+        ByteBuf chunk = in.readRetainedSlice(length);
+        boolean last = remainingFrameBytes == 0;
+
+        if (direction == PacketDirection.CLIENT_TO_SERVER) {
+            // The whole frame goes to the backend or none of it does
+            if (frameSize > 0) {
+                ProxyMetrics.getInstance().recordPacketFromClient("RawPacket", frameSize);
+                droppingFrame = session.getState() != SessionState.CONNECTED;
+            }
+            if (droppingFrame) {
+                chunk.release();
+                return;
+            }
+            session.sendChunkToBackend(chunk, frameSize, last);
+        } else {
+            if (frameSize > 0) {
+                ProxyMetrics.getInstance().recordPacketFromBackend("RawPacket", frameSize);
+            }
+            session.sendChunkToClient(chunk, frameSize, last);
+        }
+    }
+
+    // ==================== Claimed Packets ====================
+
+    private void decodeClaimed(ChannelHandlerContext ctx, ByteBuf in, List<Object> out,
+                               int payloadLength, PacketRegistry.PacketInfo packetInfo) {
+        if (payloadLength > packetInfo.maxSize()) {
+            LOGGER.error("[{}] Packet {} payload too large: {} > {}",
+                direction, packetInfo.name(), payloadLength, packetInfo.maxSize());
+            in.skipBytes(in.readableBytes());
+            ctx.close();
+            return;
+        }
+
+        int frameIndex = in.readerIndex();
+        in.skipBytes(HEADER_SIZE);
+        try {
+            Packet packet = PacketIO.readFramedPacketWithInfo(in, payloadLength, packetInfo, PacketStatsRecorder.NOOP);
+            out.add(new DecodedPacket(packet, in.retainedSlice(frameIndex, HEADER_SIZE + payloadLength)));
+        } catch (ProtocolException | IndexOutOfBoundsException e) {
+            LOGGER.error("[{}] Error decoding claimed packet {}: {}", direction, packetInfo.name(), e.getMessage());
+            ctx.close();
+        }
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        // The client already received part of a frame, so its stream cannot be resumed
+        if (direction == PacketDirection.SERVER_TO_CLIENT && remainingFrameBytes > 0) {
+            session.disconnect("Backend connection lost mid-packet");
+        }
+        super.channelInactive(ctx);
+    }
+
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+        LOGGER.error("Session {}: Exception in passthrough relay", session.getSessionId(), cause);
+        ctx.close();
+    }
+}
@@ -0,0 +1,247 @@
+package me.internalizable.numdrassl.pipeline;
+
+import com.hypixel.hytale.protocol.Packet;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.incubator.codec.quic.QuicChannel;
+import io.netty.incubator.codec.quic.QuicStreamChannel;
+import me.internalizable.numdrassl.config.ProxyConfig;
+import me.internalizable.numdrassl.event.packet.PacketDirection;
+import me.internalizable.numdrassl.event.packet.PacketEvent;
+import me.internalizable.numdrassl.event.packet.PacketEventManager;
+import me.internalizable.numdrassl.pipeline.codec.DecodedPacket;
+import me.internalizable.numdrassl.pipeline.codec.FrameChunk;
+import me.internalizable.numdrassl.pipeline.codec.ProxyPacketDecoder;
+import me.internalizable.numdrassl.pipeline.codec.ProxyPacketEncoder;
+import me.internalizable.numdrassl.profiling.ProxyMetrics;
+import me.internalizable.numdrassl.session.ProxySession;
+import me.internalizable.numdrassl.session.SessionState;
+import me.internalizable.numdrassl.session.channel.StreamBackpressure;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Relays one secondary stream of a session to its matching stream on the other side.
+ *
+ * <p>The first bidirectional stream a client opens is the session's primary stream
+ * and is handled by {@link ClientPacketHandler} / {@link BackendPacketHandler}. Every
+ * further stream, opened by either the client or the backend, is paired with a new
+ * stream of the same type on the other connection. Each side of a pair has its own
+ * decoder, so a frame lost on one stream does not hold up any other.</p>
+ *
+ * <p>Claimed packets are decoded and passed through the packet listeners; everything
+ * else is forwarded as raw frames. A stream does not read until its peer exists, and
+ * stops reading while its peer is unwritable, through the session's
+ * {@link StreamBackpressure}. Closing either side closes the other,
+ * so pairs end with the backend connection on a server transfer.</p>
+ */
+public final class StreamPairHandler extends SimpleChannelInboundHandler<Object> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StreamPairHandler.class);
+
+    private final ProxySession session;
+    private final PacketEventManager eventManager;
+    private final PacketDirection direction;
+    private final StreamBackpressure.PairedStream backpressure;
+
+    private volatile QuicStreamChannel peer;
+
+    private StreamPairHandler(ProxySession session, PacketEventManager eventManager, PacketDirection direction) {
+        this.session = session;
+        this.eventManager = eventManager;
+        this.direction = direction;
+        this.backpressure = session.newPairedStreamBackpressure(direction == PacketDirection.CLIENT_TO_SERVER);
+    }
+
+    // ==================== Pairing ====================
+
+    /**
+     * Sets up a secondary stream opened by the client. The matching backend stream is
+     * opened now if the backend has accepted the session, otherwise once it has.
+     */
+    public static void acceptClientStream(@Nonnull ProxySession session, @Nonnull PacketEventManager eventManager,
+                                          @Nonnull ProxyConfig config, @Nonnull QuicStreamChannel stream) {
+        StreamPairHandler handler = install(stream, session, eventManager, config,
+            PacketDirection.CLIENT_TO_SERVER, "client-stream");
+
+        QuicChannel backend = session.getBackendChannel();
+        if (session.getState() == SessionState.CONNECTED && backend != null && backend.isActive()) {
+            openPeer(backend, handler, stream, session, eventManager, config, PacketDirection.SERVER_TO_CLIENT);
+        } else {
+            session.addPendingClientStream(stream);
+            // ConnectAccept may have drained the queue between the state check and the enqueue
+            if (session.getState() == SessionState.CONNECTED) {
+                pairPendingClientStreams(session, eventManager, config);
+            }
+        }
+    }
+
+    /**
+     * Opens backend streams for client streams that arrived before the backend accepted
+     * the session. Called once it has.
+     */
+    public static void pairPendingClientStreams(@Nonnull ProxySession session, @Nonnull PacketEventManager eventManager,
+                                                @Nonnull ProxyConfig config) {
+        QuicChannel backend = session.getBackendChannel();
+        if (backend == null || !backend.isActive()) {
+            return;
+        }
+
+        QuicStreamChannel stream;
+        while ((stream = session.pollPendingClientStream()) != null) {
+            StreamPairHandler handler = stream.pipeline().get(StreamPairHandler.class);
+            if (stream.isActive() && handler != null) {
+                openPeer(backend, handler, stream, session, eventManager, config, PacketDirection.SERVER_TO_CLIENT);
+            }
+        }
+    }
+
+    /**
+     * Sets up a stream opened by the backend and opens the matching client stream.
+     */
+    public static void acceptBackendStream(@Nonnull ProxySession session, @Nonnull PacketEventManager eventManager,
+                                           @Nonnull ProxyConfig config, @Nonnull QuicStreamChannel stream) {
+        StreamPairHandler handler = install(stream, session, eventManager, config,
+            PacketDirection.SERVER_TO_CLIENT, "backend-stream");
+        openPeer(session.getClientChannel(), handler, stream, session, eventManager, config,
+            PacketDirection.CLIENT_TO_SERVER);
+    }
+
+    private static StreamPairHandler install(QuicStreamChannel stream, ProxySession session,
+                                             PacketEventManager eventManager, ProxyConfig config,
+                                             PacketDirection direction, String connectionType) {
+        boolean debugMode = config.isDebugMode();
+        StreamPairHandler handler = new StreamPairHandler(session, eventManager, direction);
+
+        // Nothing to forward to until the peer stream exists
+        stream.config().setAutoRead(false);
+        handler.backpressure.configure(stream);
+
+        stream.pipeline().addLast(new ProxyPacketDecoder(connectionType, debugMode, eventManager::isPacketClaimed,
+            config.getCutThroughThresholdBytes(), true));
+        stream.pipeline().addLast(new ProxyPacketEncoder(connectionType, debugMode));
+        stream.pipeline().addLast(handler);
+        return handler;
+    }
+
+    private static void openPeer(QuicChannel connection, StreamPairHandler handler, QuicStreamChannel stream,
+                                 ProxySession session, PacketEventManager eventManager, ProxyConfig config,
+                                 PacketDirection peerDirection) {
+        String connectionType = peerDirection == PacketDirection.CLIENT_TO_SERVER ? "client-stream" : "backend-stream";
+
+        connection.createStream(stream.type(), new ChannelInitializer<QuicStreamChannel>() {
+            @Override
+            protected void initChannel(QuicStreamChannel ch) {
+                install(ch, session, eventManager, config, peerDirection, connectionType).peer = stream;
+            }
+        }).addListener(future -> {
+            if (!future.isSuccess()) {
+                LOGGER.warn("Session {}: Failed to open paired stream for {}",
+                    session.getSessionId(), handler.direction, future.cause());
+                stream.close();
+                return;
+            }
+
+            QuicStreamChannel peer = (QuicStreamChannel) future.getNow();
+            handler.peer = peer;
+            peer.config().setAutoRead(true);
+            stream.config().setAutoRead(true);
+            LOGGER.debug("Session {}: Paired {} stream {} with {}",
+                session.getSessionId(), handler.direction, stream.streamId(), peer.streamId());
+        });
+    }
+
+    // ==================== Relaying ====================
+
+    @Override
+    protected void channelRead0(ChannelHandlerContext ctx, Object msg) {
+        QuicStreamChannel target = peer;
+        if (target == null) {
+            return;
+        }
+
+        if (msg instanceof FrameChunk chunk) {
+            if (chunk.frameSize() > 0) {
+                recordFrame(chunk.frameSize());
+            }
+            // Only this pair writes to the peer, so chunks need no write ordering
+            target.writeAndFlush(chunk.content().retain());
+        } else if (msg instanceof ByteBuf raw) {
+            recordFrame(raw.readableBytes());
+            target.write(raw.retain());
+        } else if (msg instanceof DecodedPacket decoded) {
+            forward(target, decoded.packet(), decoded.content());
+        } else if (msg instanceof Packet packet) {
+            forward(target, packet, null);
+        }
+    }
+
+    private void forward(QuicStreamChannel target, Packet packet, ByteBuf frame) {
+        String name = packet.getClass().getSimpleName();
+        if (direction == PacketDirection.CLIENT_TO_SERVER) {
+            ProxyMetrics.getInstance().recordPacketFromClient(name, 0);
+        } else {
+            ProxyMetrics.getInstance().recordPacketFromBackend(name, 0);
+        }
+
+        PacketEvent<Packet> event = eventManager.firePacket(session, packet, direction);
+        if (event.isCancelled()) {
+            return;
+        }
+        if (!event.isModified() && frame != null) {
+            target.write(frame.retain());
+        } else {
+            target.write(event.getPacket());
+        }
+    }
+
+    private void recordFrame(int bytes) {
+        if (direction == PacketDirection.CLIENT_TO_SERVER) {
+            ProxyMetrics.getInstance().recordPacketFromClient("RawPacket", bytes);
+            ProxyMetrics.getInstance().recordPacketToBackend("RawPacket", bytes);
+        } else {
+            ProxyMetrics.getInstance().recordPacketFromBackend("RawPacket", bytes);
+            ProxyMetrics.getInstance().recordPacketToClient("RawPacket", bytes);
+        }
+    }
+
+    // ==================== Channel Lifecycle ====================
+
+    @Override
+    public void channelReadComplete(ChannelHandlerContext ctx) throws Exception {
+        QuicStreamChannel target = peer;
+        if (target != null) {
+            target.flush();
+        }
+        super.channelReadComplete(ctx);
+    }
+
+    @Override
+    public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+        QuicStreamChannel target = peer;
+        if (target != null) {
+            backpressure.writabilityChanged((QuicStreamChannel) ctx.channel(), target);
+        }
+        super.channelWritabilityChanged(ctx);
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        backpressure.release();
+        QuicStreamChannel target = peer;
+        if (target != null && target.isActive()) {
+            target.close();
+        }
+        super.channelInactive(ctx);
+    }
+
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+        LOGGER.error("Session {}: Exception in {} stream pair", session.getSessionId(), direction, cause);
+        ctx.close();
+    }
+}
@@ -0,0 +1,30 @@
+package me.internalizable.numdrassl.pipeline.codec;
+
+import com.hypixel.hytale.protocol.Packet;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.DefaultByteBufHolder;
+
+import javax.annotation.Nonnull;
+import java.util.Objects;
+
+/**
+ * A decoded packet together with the frame it was decoded from.
+ *
+ * <p>If the packet's event is neither cancelled nor
+ * {@link me.internalizable.numdrassl.event.packet.PacketEvent#isModified() modified},
+ * the handler forwards {@link #content()} instead of re-encoding the packet.</p>
+ */
+public final class DecodedPacket extends DefaultByteBufHolder {
+
+    private final Packet packet;
+
+    public DecodedPacket(@Nonnull Packet packet, @Nonnull ByteBuf frame) {
+        super(frame);
+        this.packet = Objects.requireNonNull(packet, "packet");
+    }
+
+    @Nonnull
+    public Packet packet() {
+        return packet;
+    }
+}
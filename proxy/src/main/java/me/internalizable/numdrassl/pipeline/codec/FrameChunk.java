@@ -0,0 +1,41 @@
+package me.internalizable.numdrassl.pipeline.codec;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.DefaultByteBufHolder;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Part of a large unknown frame that is streamed to the peer as it arrives.
+ *
+ * <p>The first chunk of a frame starts with its 8-byte header and carries the size of
+ * the whole frame in {@link #frameSize()}. Chunks of one frame
+ * arrive in order, and no other frame is emitted until the {@link #isLast() last}
+ * chunk. Because the peer stream must not receive other writes in between, chunks
+ * are sent with {@code sendChunkToClient}/{@code sendChunkToBackend}.</p>
+ */
+public final class FrameChunk extends DefaultByteBufHolder {
+
+    private final int frameSize;
+    private final boolean last;
+
+    public FrameChunk(@Nonnull ByteBuf data, int frameSize, boolean last) {
+        super(data);
+        this.frameSize = frameSize;
+        this.last = last;
+    }
+
+    /**
+     * The size of the whole frame including its header on the first chunk, 0 on the rest.
+     */
+    public int frameSize() {
+        return frameSize;
+    }
+
+    /**
+     * Whether this chunk completes its frame.
+     */
+    public boolean isLast() {
+        return last;
+    }
+}
@@ -14,12 +14,23 @@ import org.slf4j.LoggerFactory;
 import javax.annotation.Nonnull;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.IntPredicate;
 
 /**
  * Decodes Hytale protocol packets from raw bytes.
  *
- * <p>Unknown packets (not in {@link PacketRegistry}) are forwarded as raw
- * {@link ByteBuf} to allow transparent proxying of new packet types.</p>
+ * <p>Unknown packets (not in {@link PacketRegistry}) and known packets nobody is
+ * interested in are forwarded as retained slices of the cumulation buffer, allowing
+ * transparent proxying without decoding or copying the frame.</p>
+ *
+ * <p>Forwarded frames at or above the cut-through threshold are not buffered whole.
+ * The decoder emits the header and whatever payload has arrived as a {@link FrameChunk},
+ * then streams the rest of the frame as further chunks while tracking how many bytes
+ * remain.</p>
+ *
+ * <p>When original frames are kept, decoded packets are emitted as
+ * {@link DecodedPacket}s holding a retained slice of their frame, so packets that pass
+ * through the listeners unchanged can be forwarded without re-encoding.</p>
  */
 public final class ProxyPacketDecoder extends ByteToMessageDecoder {
 
@@ -30,14 +41,55 @@ public final class ProxyPacketDecoder extends ByteToMessageDecoder {
 
     private final String connectionType;
     private final boolean debugMode;
+    private final IntPredicate interest;
+    private final int cutThroughThreshold;
+    private final boolean keepOriginalFrames;
+
+    // Bytes of the current cut-through frame still to be streamed, 0 between frames
+    private int remainingFrameBytes;
 
+    /**
+     * Creates a decoder that decodes every packet known to {@link PacketRegistry}.
+     */
     public ProxyPacketDecoder(@Nonnull String connectionType, boolean debugMode) {
+        this(connectionType, debugMode, packetId -> true);
+    }
+
+    /**
+     * Creates a decoder that only decodes known packets accepted by {@code interest}.
+     * Other frames are forwarded as raw slices, exactly like unknown packets.
+     *
+     * @param interest per-packet-id interest lookup, called once per frame
+     */
+    public ProxyPacketDecoder(@Nonnull String connectionType, boolean debugMode, @Nonnull IntPredicate interest) {
+        this(connectionType, debugMode, interest, 0, false);
+    }
+
+    /**
+     * Creates a decoder that streams forwarded frames of at least
+     * {@code cutThroughThreshold} payload bytes as {@link FrameChunk}s.
+     *
+     * @param interest per-packet-id interest lookup, called once per frame
+     * @param cutThroughThreshold minimum payload size to stream, 0 to always buffer
+     * @param keepOriginalFrames whether to emit decoded packets as {@link DecodedPacket}s
+     */
+    public ProxyPacketDecoder(@Nonnull String connectionType, boolean debugMode,
+                              @Nonnull IntPredicate interest, int cutThroughThreshold,
+                              boolean keepOriginalFrames) {
         this.connectionType = Objects.requireNonNull(connectionType, "connectionType");
         this.debugMode = debugMode;
+        this.interest = Objects.requireNonNull(interest, "interest");
+        this.cutThroughThreshold = cutThroughThreshold;
+        this.keepOriginalFrames = keepOriginalFrames;
     }
 
     @Override
     protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) {
+        if (remainingFrameBytes > 0) {
+            streamChunk(in, out, 0);
+            return;
+        }
+
         if (in.readableBytes() < HEADER_SIZE) {
             return;
         }
@@ -50,7 +102,7 @@ public final class ProxyPacketDecoder extends ByteToMessageDecoder {
         }
 
         int packetId = in.readIntLE();
-        PacketRegistry.PacketInfo packetInfo = PacketRegistry.getById(packetId);
+        PacketRegistry.PacketInfo packetInfo = interest.test(packetId) ? PacketRegistry.getById(packetId) : null;
 
         if (packetInfo == null) {
             decodeUnknownPacket(ctx, in, out, payloadLength, packetId);
@@ -87,26 +139,45 @@ public final class ProxyPacketDecoder extends ByteToMessageDecoder {
                                       int payloadLength, int packetId) {
         if (in.readableBytes() < payloadLength) {
             in.resetReaderIndex();
+            if (cutThroughThreshold > 0 && payloadLength >= cutThroughThreshold) {
+                int totalSize = HEADER_SIZE + payloadLength;
+                remainingFrameBytes = totalSize;
+                if (debugMode) {
+                    LOGGER.debug("[{}] Streaming large packet id={} (size={} bytes)",
+                        connectionType, packetId, totalSize);
+                }
+                streamChunk(in, out, totalSize);
+            }
             return;
         }
 
-        // Copy raw bytes for forwarding
+        // Hand out a retained slice of the cumulation instead of copying the frame.
+        // The cumulator copies on the next read if the slice is still referenced.
         in.resetReaderIndex();
         int totalSize = HEADER_SIZE + payloadLength;
-        ByteBuf rawCopy = ctx.alloc().buffer(totalSize);
+        out.add(in.readRetainedSlice(totalSize));
 
-        try {
-            in.readBytes(rawCopy, totalSize);
-            out.add(rawCopy);
+        if (debugMode) {
+            LOGGER.debug("[{}] Forwarding raw packet id={} (size={} bytes)",
+                connectionType, packetId, totalSize);
+        }
+    }
 
-            if (debugMode) {
-                LOGGER.debug("[{}] Forwarding unknown packet id={} (size={} bytes)",
-                    connectionType, packetId, totalSize);
-            }
-        } catch (Exception e) {
-            rawCopy.release();
-            throw e;
+    private void streamChunk(ByteBuf in, List<Object> out, int frameSize) {
+        int length = Math.min(in.readableBytes(), remainingFrameBytes);
+        if (length == 0) {
+            return;
         }
+        remainingFrameBytes -= length;
+        out.add(new FrameChunk(in.readRetainedSlice(length), frameSize, remainingFrameBytes == 0));
+    }
+
+    /**
+     * Returns how many bytes of a frame being streamed as {@link FrameChunk}s have not
+     * been emitted yet, or 0 between frames.
+     */
+    public int remainingFrameBytes() {
+        return remainingFrameBytes;
     }
 
     private void decodeKnownPacket(ChannelHandlerContext ctx, ByteBuf in, List<Object> out,
@@ -120,9 +191,14 @@ public final class ProxyPacketDecoder extends ByteToMessageDecoder {
             return;
         }
 
+        int frameIndex = in.readerIndex() - HEADER_SIZE;
         try {
             Packet packet = PacketIO.readFramedPacketWithInfo(in, payloadLength, packetInfo, PacketStatsRecorder.NOOP);
-            out.add(packet);
+            if (keepOriginalFrames) {
+                out.add(new DecodedPacket(packet, in.retainedSlice(frameIndex, HEADER_SIZE + payloadLength)));
+            } else {
+                out.add(packet);
+            }
 
             if (debugMode) {
                 LOGGER.debug("[{}] Decoded packet: {} (id={})",
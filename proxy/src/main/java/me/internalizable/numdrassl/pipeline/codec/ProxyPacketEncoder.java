@@ -16,17 +16,19 @@ import java.util.Objects;
 /**
  * Encodes Hytale protocol packets to bytes.
  *
- * <p>Supports two message types:</p>
- * <ul>
- *   <li>{@link Packet} - Encoded using the Hytale protocol</li>
- *   <li>{@link ByteBuf} - Forwarded as-is (for unknown packets)</li>
- * </ul>
+ * <p>Only {@link Packet} messages are encoded. Raw {@link ByteBuf} frames (unknown
+ * packets forwarded by {@link ProxyPacketDecoder}) are not accepted by this encoder
+ * and pass straight through to the stream, so their bytes are never copied.</p>
+ *
+ * <p>Output buffers are allocated from the channel's pooled allocator at the size
+ * reported by {@link PacketIO#framedSizeHint(Packet)}, so packets are serialised
+ * in place without growing or copying.</p>
  *
  * <p>This encoder is marked as {@link ChannelHandler.Sharable @Sharable} and can be
  * reused across multiple channels since it has no per-channel state.</p>
  */
 @ChannelHandler.Sharable
-public final class ProxyPacketEncoder extends MessageToByteEncoder<Object> {
+public final class ProxyPacketEncoder extends MessageToByteEncoder<Packet> {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ProxyPacketEncoder.class);
 
@@ -34,41 +36,18 @@ public final class ProxyPacketEncoder extends MessageToByteEncoder<Object> {
     private final boolean debugMode;
 
     public ProxyPacketEncoder(@Nonnull String connectionType, boolean debugMode) {
+        super(Packet.class);
         this.connectionType = Objects.requireNonNull(connectionType, "connectionType");
         this.debugMode = debugMode;
     }
 
     @Override
-    protected void encode(ChannelHandlerContext ctx, Object msg, ByteBuf out) {
-        if (msg instanceof ByteBuf raw) {
-            encodeRawPacket(raw, out);
-        } else if (msg instanceof Packet packet) {
-            encodePacket(packet, out);
-        } else {
-            LOGGER.warn("[{}] Unknown message type: {}", connectionType, msg.getClass().getName());
-        }
+    protected ByteBuf allocateBuffer(ChannelHandlerContext ctx, Packet packet, boolean preferDirect) {
+        return ctx.alloc().ioBuffer(PacketIO.framedSizeHint(packet));
     }
 
-    private void encodeRawPacket(ByteBuf raw, ByteBuf out) {
-        int packetId = extractPacketId(raw);
-
-        // Simply copy bytes to output - DO NOT release raw buffer here
-        // MessageToByteEncoder handles releasing the input message
-        out.writeBytes(raw);
-
-        if (debugMode) {
-            LOGGER.debug("[{}] Forwarding raw packet id={}", connectionType, packetId);
-        }
-    }
-
-    private int extractPacketId(ByteBuf raw) {
-        if (raw.readableBytes() >= 8) {
-            return raw.getIntLE(raw.readerIndex() + 4);
-        }
-        return -1;
-    }
-
-    private void encodePacket(Packet packet, ByteBuf out) {
+    @Override
+    protected void encode(ChannelHandlerContext ctx, Packet packet, ByteBuf out) {
         if (debugMode) {
             LOGGER.debug("[{}] Encoding packet: {} (id={})",
                 connectionType, packet.getClass().getSimpleName(), packet.getId());
@@ -83,4 +62,3 @@ public final class ProxyPacketEncoder extends MessageToByteEncoder<Object> {
         ctx.close();
     }
 }
-
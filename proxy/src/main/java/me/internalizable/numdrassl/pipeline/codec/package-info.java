@@ -7,10 +7,14 @@
  * <ul>
  *   <li>{@link me.internalizable.numdrassl.pipeline.codec.ProxyPacketDecoder} - Decodes
  *       incoming bytes into {@link com.hypixel.hytale.protocol.Packet} objects.
- *       Unknown packets are forwarded as raw {@link io.netty.buffer.ByteBuf}.</li>
+ *       Unknown packets are forwarded as retained {@link io.netty.buffer.ByteBuf} slices.</li>
+ *   <li>{@link me.internalizable.numdrassl.pipeline.codec.DecodedPacket} - A decoded
+ *       packet with its original frame, forwarded as-is if left unmodified.</li>
+ *   <li>{@link me.internalizable.numdrassl.pipeline.codec.FrameChunk} - Part of a large
+ *       forwarded frame streamed to the peer before the whole frame has arrived.</li>
  *   <li>{@link me.internalizable.numdrassl.pipeline.codec.ProxyPacketEncoder} - Encodes
  *       {@link com.hypixel.hytale.protocol.Packet} objects into bytes. Raw buffers
- *       are forwarded as-is.</li>
+ *       bypass the encoder and are written to the stream as-is.</li>
  * </ul>
  *
  * <h2>Packet Format</h2>
@@ -24,8 +28,9 @@
  *
  * <h2>Unknown Packet Handling</h2>
  * <p>When a packet ID is not found in {@link com.hypixel.hytale.protocol.PacketRegistry},
- * the decoder forwards the raw bytes as a {@link io.netty.buffer.ByteBuf} to allow
- * transparent proxying of new or proprietary packet types.</p>
+ * the decoder forwards the raw frame as a retained slice of its cumulation buffer to
+ * allow transparent proxying of new or proprietary packet types. The slice is written
+ * to the peer stream untouched, so forwarded frames are never copied by the proxy.</p>
  *
  * <h2>Thread Safety</h2>
  * <p>{@code ProxyPacketEncoder} is marked {@code @Sharable} and can be reused
@@ -69,6 +69,9 @@ public final class ClientAuthenticationHandler {
         // Store the connect packet - LoginEvent will be fired after authentication completes
         // in completeAuthentication() to give async permission loading time to complete.
         session.setOriginalConnect(connect);
+
+        // The handshake is complete once a stream carries Connect, so the certificate is available
+        session.captureClientCertificate();
         requestAuthGrant(connect);
     }
 
@@ -11,6 +11,8 @@
  *       and backend connection.</li>
  *   <li>{@link me.internalizable.numdrassl.pipeline.BackendPacketHandler} - Handles packets
  *       from upstream backend servers. Forwards to clients and handles connection lifecycle.</li>
+ *   <li>{@link me.internalizable.numdrassl.pipeline.StreamPairHandler} - Relays each
+ *       secondary stream of a session to its own matching stream on the other side.</li>
  *   <li>{@link me.internalizable.numdrassl.pipeline.RawPacket} - Wrapper for unknown packets
  *       that are forwarded without decoding.</li>
  * </ul>
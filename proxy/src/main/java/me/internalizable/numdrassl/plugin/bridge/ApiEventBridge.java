@@ -37,6 +37,25 @@ public final class ApiEventBridge implements PacketListener {
 
     // ==================== PacketListener Implementation ====================
 
+    /**
+     * Claims nothing directly; {@link PacketEventRegistry} claims mapped packets
+     * while API handlers exist for the events they produce.
+     */
+    @Override
+    public int[] getClaimedPacketIds() {
+        return new int[0];
+    }
+
+    /**
+     * Mappings never edit packets in place; {@link
+     * me.internalizable.numdrassl.event.mapping.PacketEventMapping#applyChanges} returns
+     * a new packet for a change, so unchanged packets keep their original frames.
+     */
+    @Override
+    public boolean mutatesPackets() {
+        return false;
+    }
+
     @Override
     public void onSessionCreated(@Nonnull ProxySession session) {
         lifecycleHandler.onSessionCreated(session);
@@ -58,8 +58,9 @@ public final class ProxyMetrics {
 
     // Connection counters
     private final Counter connectionsAccepted;
-    private final Counter connectionsRejected;
     private final Counter connectionsClosed;
+    private final Counter retriesSent;
+    private final Counter retryTokensRejected;
 
     // Packet counters (direction-aware)
     private final Counter packetsFromClient;
@@ -88,6 +89,8 @@ public final class ProxyMetrics {
 
     private final AtomicLong activeSessionsGauge = new AtomicLong(0);
     private final AtomicLong pendingBackendConnectionsGauge = new AtomicLong(0);
+    private final AtomicLong pausedToClientGauge = new AtomicLong(0);
+    private final AtomicLong pausedToBackendGauge = new AtomicLong(0);
 
     // ==================== Timers ====================
 
@@ -95,6 +98,8 @@ public final class ProxyMetrics {
     private final Timer backendConnectTimer;
     private final Timer authenticationTimer;
     private final Timer serverTransferTimer;
+    private final Timer pausedToClientTimer;
+    private final Timer pausedToBackendTimer;
 
     // ==================== Distribution Summaries ====================
 
@@ -113,6 +118,10 @@ public final class ProxyMetrics {
     private final ConcurrentHashMap<String, Counter> backendConnectionCounters = new ConcurrentHashMap<>();
     private final ConcurrentHashMap<String, AtomicLong> backendActiveConnections = new ConcurrentHashMap<>();
 
+    // ==================== Per-reason rejection tracking ====================
+
+    private final ConcurrentHashMap<String, Counter> rejectionCounters = new ConcurrentHashMap<>();
+
     // ==================== Rate tracking (for throughput) ====================
 
     private final LongAdder packetsPerSecondClient = new LongAdder();
@@ -159,14 +168,18 @@ public final class ProxyMetrics {
             .description("Total number of client connections accepted")
             .register(registry);
 
-        this.connectionsRejected = Counter.builder("proxy_connections_rejected_total")
-            .description("Total number of client connections rejected")
-            .register(registry);
-
         this.connectionsClosed = Counter.builder("proxy_connections_closed_total")
             .description("Total number of connections closed")
             .register(registry);
 
+        this.retriesSent = Counter.builder("proxy_quic_retries_total")
+            .description("Total number of QUIC Retry packets sent for address validation")
+            .register(registry);
+
+        this.retryTokensRejected = Counter.builder("proxy_quic_retry_tokens_rejected_total")
+            .description("Total number of Initial packets dropped for an invalid Retry token")
+            .register(registry);
+
         // Initialize packet counters
         this.packetsFromClient = Counter.builder("proxy_packets_total")
             .tag("direction", "from_client")
@@ -284,6 +297,29 @@ public final class ProxyMetrics {
             .publishPercentileHistogram()
             .register(registry);
 
+        // Backpressure: reads paused because the destination stream is not writable
+        this.pausedToClientTimer = Timer.builder("proxy_stream_paused_duration")
+            .tag("direction", "to_client")
+            .description("Time backend reads spent paused waiting for a slow client")
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .register(registry);
+
+        this.pausedToBackendTimer = Timer.builder("proxy_stream_paused_duration")
+            .tag("direction", "to_backend")
+            .description("Time client reads spent paused waiting for a slow backend")
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .register(registry);
+
+        Gauge.builder("proxy_streams_paused", pausedToClientGauge, AtomicLong::get)
+            .tag("direction", "to_client")
+            .description("Number of backend streams currently paused")
+            .register(registry);
+
+        Gauge.builder("proxy_streams_paused", pausedToBackendGauge, AtomicLong::get)
+            .tag("direction", "to_backend")
+            .description("Number of client streams currently paused")
+            .register(registry);
+
         // Initialize distribution summaries for packet sizes
         this.packetSizeFromClient = DistributionSummary.builder("proxy_packet_size_bytes")
             .tag("direction", "from_client")
@@ -439,14 +475,32 @@ public final class ProxyMetrics {
         connectionsAccepted.increment();
     }
 
-    public void recordConnectionRejected() {
-        connectionsRejected.increment();
+    /**
+     * Records a client connection turned away before a session was created.
+     *
+     * @param reason short tag naming the limit that was hit
+     */
+    public void recordConnectionRejected(@Nonnull String reason) {
+        rejectionCounters.computeIfAbsent(reason, r ->
+            Counter.builder("proxy_connections_rejected_total")
+                .tag("reason", r)
+                .description("Total number of client connections rejected")
+                .register(registry)
+        ).increment();
     }
 
     public void recordConnectionClosed() {
         connectionsClosed.increment();
     }
 
+    public void recordRetrySent() {
+        retriesSent.increment();
+    }
+
+    public void recordRetryTokenRejected() {
+        retryTokensRejected.increment();
+    }
+
     // ==================== Packet Metrics ====================
 
     /**
@@ -592,6 +646,42 @@ public final class ProxyMetrics {
         serverTransfersFailed.increment();
     }
 
+    // ==================== Backpressure Metrics ====================
+
+    /**
+     * Records that backend reads were paused because the client stream is not writable.
+     */
+    public void recordToClientPaused() {
+        pausedToClientGauge.incrementAndGet();
+    }
+
+    /**
+     * Records that paused backend reads were resumed.
+     *
+     * @param pausedNanos how long reads were paused
+     */
+    public void recordToClientResumed(long pausedNanos) {
+        pausedToClientGauge.decrementAndGet();
+        pausedToClientTimer.record(pausedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records that client reads were paused because the backend stream is not writable.
+     */
+    public void recordToBackendPaused() {
+        pausedToBackendGauge.incrementAndGet();
+    }
+
+    /**
+     * Records that paused client reads were resumed.
+     *
+     * @param pausedNanos how long reads were paused
+     */
+    public void recordToBackendResumed(long pausedNanos) {
+        pausedToBackendGauge.decrementAndGet();
+        pausedToBackendTimer.record(pausedNanos, TimeUnit.NANOSECONDS);
+    }
+
     // ==================== Timing ====================
 
     /**
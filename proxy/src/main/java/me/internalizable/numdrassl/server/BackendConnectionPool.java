@@ -0,0 +1,231 @@
+package me.internalizable.numdrassl.server;
+
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.EventLoop;
+import io.netty.channel.EventLoopGroup;
+import io.netty.incubator.codec.quic.QuicChannel;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.ScheduledFuture;
+import me.internalizable.numdrassl.config.BackendServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Keeps handshaken QUIC connections to every configured backend ready for new sessions.
+ *
+ * <p>Idle connections are kept per event loop, so a session's client and backend
+ * always share one thread. Once a second, the pool tops up every loop to
+ * {@code minIdle} idle connections per backend, opening at most
+ * {@code refillPerSecond} per backend per tick. It also closes connections older than
+ * {@code maxAge}. Idle connections carry no streams, so {@code maxAge} is kept below
+ * the QUIC idle timeout and connections are replaced before the backend drops
+ * them.</p>
+ *
+ * <p>{@link #take} only hands out a connection on the caller's event loop, and
+ * replaces it on that loop right away. If the loop has none idle, it returns
+ * {@code null} and the caller connects on its own loop.</p>
+ */
+final class BackendConnectionPool {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BackendConnectionPool.class);
+
+    private final BackendEndpointPool endpointPool;
+    private final ChannelHandler streamHandler;
+    private final int minIdle;
+    private final int refillPerSecond;
+    private final long maxAgeNanos;
+    private final Map<String, Map<EventLoop, IdleConnections>> idle = new ConcurrentHashMap<>();
+
+    private volatile ScheduledFuture<?> refillTask;
+    private volatile boolean closed;
+
+    /**
+     * @param endpointPool the endpoints used to open connections
+     * @param streamHandler handler for streams opened by the backend on pooled connections
+     * @param minIdle idle connections to keep per backend on each event loop, 0 to disable pooling
+     * @param maxAgeSeconds maximum age of an idle connection
+     * @param refillPerSecond maximum connections opened per backend per second
+     * @param idleTimeoutSeconds the QUIC idle timeout of backend connections
+     */
+    BackendConnectionPool(
+            @Nonnull BackendEndpointPool endpointPool,
+            @Nonnull ChannelHandler streamHandler,
+            int minIdle,
+            int maxAgeSeconds,
+            int refillPerSecond,
+            int idleTimeoutSeconds) {
+
+        this.endpointPool = Objects.requireNonNull(endpointPool, "endpointPool");
+        this.streamHandler = Objects.requireNonNull(streamHandler, "streamHandler");
+        this.minIdle = Math.max(0, minIdle);
+        this.refillPerSecond = Math.max(1, refillPerSecond);
+
+        long maxAge = Math.min(maxAgeSeconds, Math.max(1, idleTimeoutSeconds * 3L / 4));
+        this.maxAgeNanos = TimeUnit.SECONDS.toNanos(Math.max(1, maxAge));
+    }
+
+    /**
+     * Starts refilling the pool for the given backends.
+     *
+     * @param group the event loops connections are spread across
+     * @param backends supplies the currently configured backends
+     */
+    void start(@Nonnull EventLoopGroup group, @Nonnull Supplier<List<BackendServer>> backends) {
+        if (minIdle == 0) {
+            return;
+        }
+        refillTask = group.scheduleAtFixedRate(() -> refill(group, backends), 0, 1, TimeUnit.SECONDS);
+        LOGGER.info("Backend connection pool enabled ({} idle per backend per event loop)", minIdle);
+    }
+
+    /**
+     * Takes an idle connection to a backend on the caller's event loop.
+     *
+     * @param backend the backend to connect to
+     * @param loop the event loop the caller runs on
+     * @return a connected channel on {@code loop}, or {@code null} if none is idle there
+     */
+    @Nullable
+    QuicChannel take(@Nonnull BackendServer backend, @Nonnull EventLoop loop) {
+        Map<EventLoop, IdleConnections> loops = idle.get(key(backend));
+        IdleConnections connections = loops != null ? loops.get(loop) : null;
+        if (connections == null) {
+            return null;
+        }
+
+        long now = System.nanoTime();
+        Entry entry;
+        while ((entry = connections.entries.pollFirst()) != null) {
+            if (isUsable(entry, now)) {
+                replenish(loop, backend, connections);
+                return entry.channel;
+            }
+            entry.channel.close();
+        }
+        return null;
+    }
+
+    /**
+     * Opens a replacement for a taken connection on the same loop.
+     */
+    private void replenish(EventLoop loop, BackendServer backend, IdleConnections connections) {
+        if (!closed && connections.entries.size() + connections.pending.get() < minIdle) {
+            open(loop, backend, connections);
+        }
+    }
+
+    private boolean isUsable(Entry entry, long now) {
+        return entry.channel.isActive() && now - entry.createdAt < maxAgeNanos;
+    }
+
+    // ==================== Refill ====================
+
+    private void refill(EventLoopGroup group, Supplier<List<BackendServer>> backends) {
+        if (closed) {
+            return;
+        }
+
+        Set<String> configured = new HashSet<>();
+        for (BackendServer backend : List.copyOf(backends.get())) {
+            String key = key(backend);
+            configured.add(key);
+            refill(group, backend, idle.computeIfAbsent(key, k -> new ConcurrentHashMap<>()));
+        }
+
+        // Drop pools of backends that are no longer configured
+        idle.entrySet().removeIf(e -> {
+            if (configured.contains(e.getKey())) {
+                return false;
+            }
+            e.getValue().values().forEach(IdleConnections::closeAll);
+            return true;
+        });
+    }
+
+    private void refill(EventLoopGroup group, BackendServer backend, Map<EventLoop, IdleConnections> loops) {
+        long now = System.nanoTime();
+        int budget = refillPerSecond;
+        for (EventExecutor executor : group) {
+            EventLoop loop = (EventLoop) executor;
+            IdleConnections connections = loops.computeIfAbsent(loop, l -> new IdleConnections());
+            for (Entry entry : connections.entries) {
+                if (!isUsable(entry, now) && connections.entries.remove(entry)) {
+                    entry.channel.close();
+                }
+            }
+
+            int missing = minIdle - connections.entries.size() - connections.pending.get();
+            for (int i = 0; i < missing && budget > 0; i++, budget--) {
+                open(loop, backend, connections);
+            }
+        }
+    }
+
+    private void open(EventLoop loop, BackendServer backend, IdleConnections connections) {
+        connections.pending.incrementAndGet();
+        endpointPool.connect(loop, backend.getHost(), backend.getPort(), streamHandler)
+            .addListener(future -> {
+                connections.pending.decrementAndGet();
+                if (!future.isSuccess()) {
+                    LOGGER.debug("Failed to pre-connect to backend {}", backend.getName(), future.cause());
+                    return;
+                }
+
+                QuicChannel channel = (QuicChannel) future.getNow();
+                if (closed) {
+                    channel.close();
+                    return;
+                }
+                Entry entry = new Entry(channel, System.nanoTime());
+                connections.entries.addLast(entry);
+                channel.closeFuture().addListener(f -> connections.entries.remove(entry));
+            });
+    }
+
+    // ==================== Lifecycle ====================
+
+    /**
+     * Stops refilling and closes all idle connections.
+     */
+    void close() {
+        closed = true;
+        ScheduledFuture<?> task = refillTask;
+        if (task != null) {
+            task.cancel(false);
+        }
+        idle.values().forEach(loops -> loops.values().forEach(IdleConnections::closeAll));
+        idle.clear();
+    }
+
+    private static String key(BackendServer backend) {
+        return backend.getHost() + ":" + backend.getPort();
+    }
+
+    private static final class IdleConnections {
+        final ConcurrentLinkedDeque<Entry> entries = new ConcurrentLinkedDeque<>();
+        final AtomicInteger pending = new AtomicInteger();
+
+        void closeAll() {
+            Entry entry;
+            while ((entry = entries.pollFirst()) != null) {
+                entry.channel.close();
+            }
+        }
+    }
+
+    private record Entry(QuicChannel channel, long createdAt) {
+    }
+}
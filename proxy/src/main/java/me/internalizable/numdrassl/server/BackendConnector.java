@@ -3,22 +3,22 @@ package me.internalizable.numdrassl.server;
 import com.hypixel.hytale.protocol.HostAddress;
 import com.hypixel.hytale.protocol.Packet;
 import com.hypixel.hytale.protocol.packets.connection.Connect;
-import io.netty.bootstrap.Bootstrap;
 import io.netty.channel.*;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.nio.NioDatagramChannel;
 import io.netty.incubator.codec.quic.QuicChannel;
-import io.netty.incubator.codec.quic.QuicClientCodecBuilder;
-import io.netty.incubator.codec.quic.QuicCongestionControlAlgorithm;
 import io.netty.incubator.codec.quic.QuicSslContext;
 import io.netty.incubator.codec.quic.QuicSslContextBuilder;
 import io.netty.incubator.codec.quic.QuicStreamChannel;
 import io.netty.incubator.codec.quic.QuicStreamType;
+import io.netty.util.AttributeKey;
+import io.netty.util.concurrent.Future;
+import me.internalizable.numdrassl.common.HmacSigner;
 import me.internalizable.numdrassl.common.SecretMessageUtil;
 import me.internalizable.numdrassl.config.BackendServer;
+import me.internalizable.numdrassl.config.ProxyConfig;
 import me.internalizable.numdrassl.event.packet.ProxyPing;
 import me.internalizable.numdrassl.event.packet.ProxyPong;
 import me.internalizable.numdrassl.pipeline.BackendPacketHandler;
+import me.internalizable.numdrassl.pipeline.StreamPairHandler;
 import me.internalizable.numdrassl.pipeline.codec.ProxyPacketDecoder;
 import me.internalizable.numdrassl.pipeline.codec.ProxyPacketEncoder;
 import me.internalizable.numdrassl.profiling.ProxyMetrics;
@@ -31,7 +31,6 @@ import org.slf4j.LoggerFactory;
 import javax.annotation.Nonnull;
 import java.io.File;
 import java.io.FileInputStream;
-import java.net.InetSocketAddress;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.SecureRandom;
@@ -47,23 +46,34 @@ import java.util.concurrent.TimeUnit;
  *
  * <p>Manages the client (outbound) side of the proxy's connection to backend servers.
  * Uses BBR congestion control and secret-based authentication via HMAC-signed referral data.</p>
+ *
+ * <p>Backend connections are bound to the event loop that owns the player's client
+ * {@link QuicChannel}, so both directions of a session are forwarded on one thread
+ * without cross-thread hand-offs. Connections without a session (health checks)
+ * use the proxy's shared event loop group.</p>
  */
 public final class BackendConnector {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(BackendConnector.class);
-    private static final int THREAD_COUNT = 2;
+
+    /**
+     * The session a backend connection belongs to. Set when a session takes the connection.
+     */
+    private static final AttributeKey<ProxySession> SESSION_KEY = AttributeKey.valueOf("numdrassl.backendSession");
 
     private final ProxyCore proxyCore;
-    private final EventLoopGroup group;
     private QuicSslContext sslContext;
+    private BackendEndpointPool endpointPool;
+    private BackendConnectionPool connectionPool;
     private byte[] proxySecret;
+    private HmacSigner referralSigner;
 
     // ==================== Construction ====================
 
     public BackendConnector(@Nonnull ProxyCore proxyCore) {
         this.proxyCore = Objects.requireNonNull(proxyCore, "proxyCore");
-        this.group = new NioEventLoopGroup(THREAD_COUNT);
         initProxySecret();
+        this.referralSigner = new HmacSigner(proxySecret);
     }
 
     private void initProxySecret() {
@@ -123,6 +133,22 @@ public final class BackendConnector {
         } catch (Exception e) {
             throw new IllegalStateException("Failed to create SSL context", e);
         }
+
+        ProxyConfig config = proxyCore.getConfig();
+        this.endpointPool = new BackendEndpointPool(proxyCore, sslContext,
+            config.getBackendMaxConnectionsPerSocket());
+        this.connectionPool = new BackendConnectionPool(endpointPool, createPooledStreamHandler(),
+            config.getBackendPoolMinIdle(), config.getBackendPoolMaxAgeSeconds(),
+            config.getBackendPoolRefillPerSecond(), config.getConnectionTimeoutSeconds());
+    }
+
+    /**
+     * Starts pre-connecting to the configured backends. Requires networking to be started.
+     */
+    public void startConnectionPool() {
+        if (connectionPool != null) {
+            connectionPool.start(proxyCore.getEventLoopGroup(), proxyCore.getConfig()::getBackends);
+        }
     }
 
     private void validateCertificateFiles(File certFile, File keyFile) {
@@ -230,73 +256,76 @@ public final class BackendConnector {
 
         session.setCurrentBackend(backend);
 
-        try {
-            Bootstrap bootstrap = createBootstrap();
-            InetSocketAddress address = new InetSocketAddress(backend.getHost(), backend.getPort());
-            Channel datagramChannel = bootstrap.bind(0).sync().channel();
+        boolean debugMode = proxyCore.getConfig().isDebugMode();
+        EventLoop loop = session.getClientChannel().eventLoop();
+
+        // A pre-warmed connection skips the QUIC/TLS handshake entirely
+        QuicChannel pooled = connectionPool.take(backend, loop);
+        if (pooled != null) {
+            LOGGER.debug("Session {}: Using pre-connected backend channel", session.getSessionId());
+            onConnected(session, pooled, backend, connectPacket, isReconnect, debugMode);
+            return;
+        }
 
-            connectQuicChannel(session, datagramChannel, address, backend, connectPacket, isReconnect);
+        try {
+            // Resolved and multiplexed on a shared endpoint of the client's event loop
+            endpointPool.connect(loop, backend.getHost(), backend.getPort(),
+                    createStreamHandler(session, debugMode))
+                .addListener(future -> {
+                    if (future.isSuccess()) {
+                        QuicChannel quicChannel = (QuicChannel) future.getNow();
+                        onConnected(session, quicChannel, backend, connectPacket, isReconnect, debugMode);
+                    } else {
+                        LOGGER.error("Session {}: Failed to connect to backend",
+                            session.getSessionId(), future.cause());
+                        handleConnectionFailure(session, backend.getName(), isReconnect);
+                    }
+                });
         } catch (Exception e) {
             LOGGER.error("Session {}: Error connecting to backend", session.getSessionId(), e);
             handleConnectionFailure(session, backend.getName(), isReconnect);
         }
     }
 
-    private Bootstrap createBootstrap() {
-        ChannelHandler codec = new QuicClientCodecBuilder()
-            .sslContext(sslContext)
-            .congestionControlAlgorithm(QuicCongestionControlAlgorithm.BBR)
-            .maxIdleTimeout(proxyCore.getConfig().getConnectionTimeoutSeconds(), TimeUnit.SECONDS)
-            .initialMaxData(10_000_000)
-            .initialMaxStreamDataBidirectionalLocal(1_000_000)
-            .initialMaxStreamDataBidirectionalRemote(1_000_000)
-            .initialMaxStreamsBidirectional(100)
-            .initialMaxStreamsUnidirectional(100)
-            .build();
-
-        return new Bootstrap()
-            .group(group)
-            .channel(NioDatagramChannel.class)
-            .handler(codec);
-    }
-
-    private void connectQuicChannel(
-            ProxySession session,
-            Channel datagramChannel,
-            InetSocketAddress address,
-            BackendServer backend,
-            Connect connectPacket,
-            boolean isReconnect) {
-
-        boolean debugMode = proxyCore.getConfig().isDebugMode();
-
-        QuicChannel.newBootstrap(datagramChannel)
-            .streamHandler(createStreamHandler(session, debugMode))
-            .remoteAddress(address)
-            .connect()
-            .addListener(future -> {
-                if (future.isSuccess()) {
-                    QuicChannel quicChannel = (QuicChannel) future.getNow();
-                    onConnected(session, quicChannel, backend, connectPacket, isReconnect, debugMode);
-                } else {
-                    LOGGER.error("Session {}: Failed to connect to backend",
-                        session.getSessionId(), future.cause());
-                    handleConnectionFailure(session, backend.getName(), isReconnect);
-                }
-            });
+    private ChannelInitializer<QuicStreamChannel> createStreamHandler(ProxySession session, boolean debugMode) {
+        return new ChannelInitializer<>() {
+            @Override
+            protected void initChannel(QuicStreamChannel ch) {
+                initBackendStream(ch, session, debugMode);
+            }
+        };
     }
 
-    private ChannelInitializer<QuicStreamChannel> createStreamHandler(ProxySession session, boolean debugMode) {
+    /**
+     * Stream handler for pooled connections, which have no session until one takes them.
+     */
+    private ChannelInitializer<QuicStreamChannel> createPooledStreamHandler() {
         return new ChannelInitializer<>() {
             @Override
             protected void initChannel(QuicStreamChannel ch) {
-                ch.pipeline().addLast(new ProxyPacketDecoder("backend-server", debugMode));
-                ch.pipeline().addLast(new ProxyPacketEncoder("backend-server", debugMode));
-                ch.pipeline().addLast(new BackendPacketHandler(proxyCore, session));
+                ProxySession session = ch.parent().attr(SESSION_KEY).get();
+                if (session == null) {
+                    ch.close();
+                    return;
+                }
+                initBackendStream(ch, session, proxyCore.getConfig().isDebugMode());
             }
         };
     }
 
+    private void initBackendStream(QuicStreamChannel ch, ProxySession session, boolean debugMode) {
+        // Streams the backend opens are relayed to matching client streams
+        if (!ch.isLocalCreated()) {
+            StreamPairHandler.acceptBackendStream(session, proxyCore.getEventManager(), proxyCore.getConfig(), ch);
+            return;
+        }
+
+        ch.pipeline().addLast(new ProxyPacketDecoder("backend-server", debugMode,
+            proxyCore.getEventManager()::isPacketClaimed, proxyCore.getConfig().getCutThroughThresholdBytes(), true));
+        ch.pipeline().addLast(new ProxyPacketEncoder("backend-server", debugMode));
+        ch.pipeline().addLast(new BackendPacketHandler(proxyCore, session));
+    }
+
     private void onConnected(
             ProxySession session,
             QuicChannel quicChannel,
@@ -307,6 +336,7 @@ public final class BackendConnector {
 
         LOGGER.info("Session {}: Connected to backend {} QUIC channel",
             session.getSessionId(), backend.getName());
+        quicChannel.attr(SESSION_KEY).set(session);
         session.setBackendChannel(quicChannel);
         ProxyMetrics.getInstance().recordBackendConnection(backend.getName());
 
@@ -382,7 +412,7 @@ public final class BackendConnector {
             session.getUsername(),
             backendName,
             session.getClientAddress(),
-            proxySecret
+            referralSigner
         );
 
         LOGGER.debug("Session {}: Created signed referral ({} bytes) for {}",
@@ -418,91 +448,72 @@ public final class BackendConnector {
         Objects.requireNonNull(backend, "backend");
         CompletableFuture<Boolean> future = new CompletableFuture<>();
 
-        InetSocketAddress address = new InetSocketAddress(backend.getHost(), backend.getPort());
+        EventLoop loop = proxyCore.getEventLoopGroup().next();
+        Future<QuicChannel> connectFuture = endpointPool.connect(loop, backend.getHost(), backend.getPort(),
+            new ChannelInitializer<QuicStreamChannel>() {
+                @Override
+                protected void initChannel(QuicStreamChannel ch) throws Exception {
+                }
+            });
+
+        loop.schedule(() -> {
+            if (future.complete(false)) {
+                connectFuture.cancel(false);
+            }
+        }, timeoutMs, TimeUnit.MILLISECONDS);
 
-        Bootstrap bootstrap = createBootstrap();
-        bootstrap.bind(0).addListener((ChannelFutureListener) bindFuture -> {
-            if (!bindFuture.isSuccess()) {
+        connectFuture.addListener(f -> {
+            if (!f.isSuccess()) {
                 future.complete(false);
                 return;
             }
 
-            Channel datagramChannel = bindFuture.channel();
+            QuicChannel quicChannel = (QuicChannel) f.getNow();
 
-            datagramChannel.eventLoop().schedule(() -> {
-                if (future.complete(false)) {
-                    datagramChannel.close();
-                }
-            }, timeoutMs, TimeUnit.MILLISECONDS);
+            quicChannel.createStream(QuicStreamType.BIDIRECTIONAL, new ChannelInitializer<QuicStreamChannel>() {
+                @Override
+                protected void initChannel(QuicStreamChannel ch) {
+                    boolean debugMode = proxyCore.getConfig().isDebugMode();
 
-            QuicChannel.newBootstrap(datagramChannel)
-                    .remoteAddress(address)
-                    .streamHandler(new ChannelInitializer<QuicStreamChannel>() {
-                        @Override
-                        protected void initChannel(QuicStreamChannel ch) throws Exception {
-                        }
-                    })
-                    .connect()
-                    .addListener(connectFuture -> {
-                        if (!connectFuture.isSuccess()) {
-                            if (future.complete(false)) {
-                                datagramChannel.close();
-                            }
-                            return;
-                        }
+                    ch.pipeline().addLast(new ProxyPacketDecoder("backend-ping", debugMode));
+                    ch.pipeline().addLast(new ProxyPacketEncoder("backend-ping", debugMode));
 
-                        QuicChannel quicChannel = (QuicChannel) connectFuture.getNow();
-
-                        quicChannel.createStream(QuicStreamType.BIDIRECTIONAL, new ChannelInitializer<QuicStreamChannel>() {
-                            @Override
-                            protected void initChannel(QuicStreamChannel ch) {
-                                boolean debugMode = proxyCore.getConfig().isDebugMode();
-
-                                ch.pipeline().addLast(new ProxyPacketDecoder("backend-ping", debugMode));
-                                ch.pipeline().addLast(new ProxyPacketEncoder("backend-ping", debugMode));
-
-                                ch.pipeline().addLast(new SimpleChannelInboundHandler<Packet>() {
-                                    @Override
-                                    protected void channelRead0(ChannelHandlerContext ctx, Packet packet) {
-                                        if (packet instanceof ProxyPong) {
-                                            if (!future.isDone()) {
-                                                future.complete(true);
-                                            }
-                                            ctx.close();
-                                            return;
-                                        }
-                                    }
-                                });
-                            }
-                        }).addListener(streamFuture -> {
-                            if (!streamFuture.isSuccess()) {
-                                if (future.complete(false)) {
-                                    quicChannel.eventLoop().execute(() -> quicChannel.close());
-                                    datagramChannel.close();
+                    ch.pipeline().addLast(new SimpleChannelInboundHandler<Packet>() {
+                        @Override
+                        protected void channelRead0(ChannelHandlerContext ctx, Packet packet) {
+                            if (packet instanceof ProxyPong) {
+                                if (!future.isDone()) {
+                                    future.complete(true);
                                 }
+                                ctx.close();
                                 return;
                             }
+                        }
+                    });
+                }
+            }).addListener(streamFuture -> {
+                if (!streamFuture.isSuccess()) {
+                    future.complete(false);
+                    return;
+                }
 
-                            QuicStreamChannel stream = (QuicStreamChannel) streamFuture.getNow();
+                QuicStreamChannel stream = (QuicStreamChannel) streamFuture.getNow();
 
-                            ProxyPing ping = new ProxyPing();
-                            ping.timestamp = System.currentTimeMillis();
-                            ping.nonce = new SecureRandom().nextLong();
+                ProxyPing ping = new ProxyPing();
+                ping.timestamp = System.currentTimeMillis();
+                ping.nonce = new SecureRandom().nextLong();
 
-                            stream.writeAndFlush(ping).addListener(writeFuture -> {
-                                if (!writeFuture.isSuccess()) {
-                                    if (future.complete(false)) {
-                                        stream.close();
-                                    }
-                                }
-                            });
-                        });
+                stream.writeAndFlush(ping).addListener(writeFuture -> {
+                    if (!writeFuture.isSuccess()) {
+                        if (future.complete(false)) {
+                            stream.close();
+                        }
+                    }
+                });
+            });
 
-                        future.whenComplete((ok, err) -> {
-                            quicChannel.eventLoop().execute(quicChannel::close);
-                            datagramChannel.close();
-                        });
-                    });
+            // The shared endpoint stays open; only this connection is closed
+            future.whenComplete((ok, err) -> quicChannel.eventLoop().execute(quicChannel::close));
         });
 
         return future;
@@ -549,7 +560,13 @@ public final class BackendConnector {
      * Shuts down the backend connector.
      */
     public void shutdown() {
-        group.shutdownGracefully();
+        // Backend channels run on the proxy's event loops, which ProxyCore shuts down
+        if (connectionPool != null) {
+            connectionPool.close();
+        }
+        if (endpointPool != null) {
+            endpointPool.close();
+        }
         LOGGER.debug("BackendConnector shut down");
     }
 }
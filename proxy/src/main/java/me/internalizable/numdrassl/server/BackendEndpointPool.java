@@ -0,0 +1,280 @@
+package me.internalizable.numdrassl.server;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.EventLoop;
+import io.netty.channel.socket.DatagramChannel;
+import io.netty.incubator.codec.quic.QuicChannel;
+import io.netty.incubator.codec.quic.QuicClientCodecBuilder;
+import io.netty.incubator.codec.quic.QuicCongestionControlAlgorithm;
+import io.netty.incubator.codec.quic.QuicSslContext;
+import io.netty.resolver.dns.DefaultDnsCache;
+import io.netty.resolver.dns.DnsAddressResolverGroup;
+import io.netty.resolver.dns.DnsNameResolverBuilder;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.Promise;
+import me.internalizable.numdrassl.config.ProxyConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shared UDP endpoints for outbound backend QUIC connections.
+ *
+ * <p>Rather than binding a socket and building a QUIC codec per session, each event loop
+ * owns a small list of client datagram channels. Each channel multiplexes up to
+ * {@code maxConnectionsPerEndpoint} backend {@link QuicChannel}s. A new endpoint is
+ * bound only when all endpoints of the loop are full. Extra endpoints are closed once
+ * their last connection closes; the first endpoint of each loop is kept open.</p>
+ *
+ * <p>Endpoint bookkeeping for a loop is only touched on that loop, so no locking is
+ * needed beyond the map of loops.</p>
+ *
+ * <p>The whole connect sequence is asynchronous. Backend host names are resolved with
+ * Netty's DNS resolver. All loops share one cache, and entries expire according to
+ * their record TTL.</p>
+ */
+final class BackendEndpointPool {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BackendEndpointPool.class);
+
+    private final ProxyCore proxyCore;
+    private final QuicSslContext sslContext;
+    private final int maxConnectionsPerEndpoint;
+    private final Map<EventLoop, List<Endpoint>> endpoints = new ConcurrentHashMap<>();
+    private final DefaultDnsCache dnsCache = new DefaultDnsCache();
+
+    private volatile QuicClientCodecBuilder codecBuilder;
+    private volatile DnsAddressResolverGroup resolverGroup;
+    private volatile boolean closed;
+
+    BackendEndpointPool(
+            @Nonnull ProxyCore proxyCore,
+            @Nonnull QuicSslContext sslContext,
+            int maxConnectionsPerEndpoint) {
+
+        this.proxyCore = Objects.requireNonNull(proxyCore, "proxyCore");
+        this.maxConnectionsPerEndpoint = Math.max(1, maxConnectionsPerEndpoint);
+        this.sslContext = Objects.requireNonNull(sslContext, "sslContext");
+    }
+
+    /**
+     * Opens a QUIC connection to a backend through a shared endpoint of the given loop.
+     *
+     * <p>The returned future completes on {@code loop}. Cancelling it before the
+     * handshake finishes closes the connection as soon as it is established.</p>
+     *
+     * @param loop the event loop the connection should live on
+     * @param host the backend host name or address
+     * @param port the backend port
+     * @param streamHandler handler for streams opened by the backend
+     * @return a future completed with the connected channel
+     */
+    @Nonnull
+    Future<QuicChannel> connect(
+            @Nonnull EventLoop loop,
+            @Nonnull String host,
+            int port,
+            @Nonnull ChannelHandler streamHandler) {
+
+        Promise<QuicChannel> promise = loop.newPromise();
+        if (loop.inEventLoop()) {
+            resolve(loop, host, port, streamHandler, promise);
+        } else {
+            loop.execute(() -> resolve(loop, host, port, streamHandler, promise));
+        }
+        return promise;
+    }
+
+    private void resolve(EventLoop loop, String host, int port,
+                         ChannelHandler streamHandler, Promise<QuicChannel> promise) {
+        if (closed) {
+            promise.tryFailure(new IllegalStateException("Backend endpoint pool is closed"));
+            return;
+        }
+
+        resolverGroup().getResolver(loop)
+            .resolve(InetSocketAddress.createUnresolved(host, port))
+            .addListener(future -> {
+                if (!future.isSuccess()) {
+                    promise.tryFailure(future.cause());
+                } else if (!promise.isDone()) {
+                    doConnect(loop, (InetSocketAddress) future.getNow(), streamHandler, promise);
+                }
+            });
+    }
+
+    private void doConnect(EventLoop loop, InetSocketAddress address,
+                           ChannelHandler streamHandler, Promise<QuicChannel> promise) {
+
+        Endpoint endpoint = acquire(loop);
+        endpoint.bindFuture.addListener(bindFuture -> {
+            if (!bindFuture.isSuccess()) {
+                release(loop, endpoint);
+                promise.tryFailure(bindFuture.cause());
+                return;
+            }
+
+            QuicChannel.newBootstrap(endpoint.bindFuture.channel())
+                .streamHandler(streamHandler)
+                .remoteAddress(address)
+                .connect()
+                .addListener(connectFuture -> {
+                    if (!connectFuture.isSuccess()) {
+                        release(loop, endpoint);
+                        promise.tryFailure(connectFuture.cause());
+                        return;
+                    }
+
+                    QuicChannel quicChannel = (QuicChannel) connectFuture.getNow();
+                    quicChannel.closeFuture().addListener(f -> release(loop, endpoint));
+                    if (!promise.trySuccess(quicChannel)) {
+                        quicChannel.close();
+                    }
+                });
+        });
+    }
+
+    /**
+     * Reserves a slot on an endpoint of the loop, binding a new one if all are full.
+     * Must be called on {@code loop}.
+     */
+    private Endpoint acquire(EventLoop loop) {
+        List<Endpoint> loopEndpoints = endpoints.computeIfAbsent(loop, l -> new ArrayList<>());
+        for (Endpoint endpoint : loopEndpoints) {
+            if (endpoint.connections < maxConnectionsPerEndpoint) {
+                endpoint.connections++;
+                return endpoint;
+            }
+        }
+
+        Endpoint endpoint = new Endpoint(bind(loop));
+        endpoint.connections++;
+        loopEndpoints.add(endpoint);
+        endpoint.bindFuture.addListener((ChannelFuture f) -> {
+            if (f.isSuccess()) {
+                LOGGER.debug("Bound backend endpoint {} ({} on this loop)",
+                    f.channel().localAddress(), loopEndpoints.size());
+                f.channel().closeFuture().addListener(cf -> loopEndpoints.remove(endpoint));
+            } else {
+                LOGGER.error("Failed to bind backend endpoint", f.cause());
+                loopEndpoints.remove(endpoint);
+            }
+        });
+        return endpoint;
+    }
+
+    /**
+     * Frees a slot. Idle endpoints other than the loop's first one are closed.
+     * Must be called on {@code loop}.
+     */
+    private void release(EventLoop loop, Endpoint endpoint) {
+        endpoint.connections--;
+
+        List<Endpoint> loopEndpoints = endpoints.get(loop);
+        if (endpoint.connections == 0 && loopEndpoints != null && loopEndpoints.indexOf(endpoint) > 0) {
+            loopEndpoints.remove(endpoint);
+            endpoint.bindFuture.channel().close();
+        }
+    }
+
+    private QuicClientCodecBuilder codecBuilder() {
+        QuicClientCodecBuilder builder = codecBuilder;
+        if (builder == null) {
+            synchronized (this) {
+                builder = codecBuilder;
+                if (builder == null) {
+                    // Built on first use, once the proxy's transport is known
+                    ProxyConfig config = proxyCore.getConfig();
+                    builder = new QuicClientCodecBuilder()
+                        .sslContext(sslContext)
+                        .congestionControlAlgorithm(QuicCongestionControlAlgorithm.BBR)
+                        .maxIdleTimeout(config.getConnectionTimeoutSeconds(), TimeUnit.SECONDS)
+                        .initialMaxData(config.getQuicInitialMaxData())
+                        .initialMaxStreamDataBidirectionalLocal(config.getQuicInitialMaxStreamData())
+                        .initialMaxStreamDataBidirectionalRemote(config.getQuicInitialMaxStreamData())
+                        .initialMaxStreamDataUnidirectional(config.getQuicInitialMaxStreamData())
+                        .initialMaxStreamsBidirectional(config.getQuicMaxStreams())
+                        .initialMaxStreamsUnidirectional(config.getQuicMaxStreams());
+                    if (proxyCore.isUdpOffloadEnabled()) {
+                        proxyCore.getTransport().sendSegmented(builder, config.getUdpMaxSegments());
+                    }
+                    codecBuilder = builder;
+                }
+            }
+        }
+        return builder;
+    }
+
+    private DnsAddressResolverGroup resolverGroup() {
+        DnsAddressResolverGroup group = resolverGroup;
+        if (group == null) {
+            synchronized (this) {
+                group = resolverGroup;
+                if (group == null) {
+                    // Resolver channels register on the proxy's loops, so they must match its transport
+                    group = new DnsAddressResolverGroup(new DnsNameResolverBuilder()
+                        .channelType(proxyCore.getTransport().datagramChannelClass())
+                        .resolveCache(dnsCache));
+                    resolverGroup = group;
+                }
+            }
+        }
+        return group;
+    }
+
+    private ChannelFuture bind(EventLoop loop) {
+        QuicClientCodecBuilder builder = codecBuilder();
+        Bootstrap bootstrap = new Bootstrap()
+            .group(loop)
+            .channel(proxyCore.getTransport().datagramChannelClass())
+            .handler(new ChannelInitializer<DatagramChannel>() {
+                @Override
+                protected void initChannel(DatagramChannel ch) {
+                    ch.pipeline().addLast(builder.build());
+                }
+            });
+        if (proxyCore.isUdpOffloadEnabled()) {
+            proxyCore.getTransport().receiveCoalesced(bootstrap);
+        }
+        return bootstrap.bind(0);
+    }
+
+    /**
+     * Closes all endpoints and every backend connection they carry.
+     */
+    void close() {
+        closed = true;
+        if (resolverGroup != null) {
+            resolverGroup.close();
+        }
+        endpoints.forEach((loop, loopEndpoints) -> loop.execute(() -> {
+            for (Endpoint endpoint : List.copyOf(loopEndpoints)) {
+                endpoint.bindFuture.channel().close();
+            }
+            loopEndpoints.clear();
+        }));
+    }
+
+    /**
+     * A shared datagram channel and the number of connections assigned to it.
+     */
+    private static final class Endpoint {
+        final ChannelFuture bindFuture;
+        int connections;
+
+        Endpoint(ChannelFuture bindFuture) {
+            this.bindFuture = bindFuture;
+        }
+    }
+}
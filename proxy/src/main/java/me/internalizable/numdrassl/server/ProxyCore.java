@@ -5,15 +5,15 @@ import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.EventLoopGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.nio.NioDatagramChannel;
-import io.netty.incubator.codec.quic.InsecureQuicTokenHandler;
+import io.netty.channel.socket.DatagramChannel;
 import io.netty.incubator.codec.quic.QuicChannel;
 import io.netty.incubator.codec.quic.QuicCongestionControlAlgorithm;
+import io.netty.incubator.codec.quic.QuicConnectionIdGenerator;
 import io.netty.incubator.codec.quic.QuicServerCodecBuilder;
 import io.netty.incubator.codec.quic.QuicSslContext;
 import io.netty.incubator.codec.quic.QuicSslContextBuilder;
 import io.netty.incubator.codec.quic.QuicStreamChannel;
+import io.netty.incubator.codec.quic.QuicStreamType;
 import me.internalizable.numdrassl.api.Numdrassl;
 import me.internalizable.numdrassl.api.event.proxy.ProxyInitializeEvent;
 import me.internalizable.numdrassl.api.event.proxy.ProxyShutdownEvent;
@@ -21,6 +21,7 @@ import me.internalizable.numdrassl.auth.ProxyAuthenticator;
 import me.internalizable.numdrassl.config.ProxyConfig;
 import me.internalizable.numdrassl.event.packet.PacketEventManager;
 import me.internalizable.numdrassl.pipeline.ClientPacketHandler;
+import me.internalizable.numdrassl.pipeline.StreamPairHandler;
 import me.internalizable.numdrassl.pipeline.codec.ProxyPacketDecoder;
 import me.internalizable.numdrassl.pipeline.codec.ProxyPacketEncoder;
 import me.internalizable.numdrassl.plugin.NumdrasslProxy;
@@ -29,11 +30,18 @@ import me.internalizable.numdrassl.profiling.MetricsHttpServer;
 import me.internalizable.numdrassl.profiling.MetricsLogger;
 import me.internalizable.numdrassl.profiling.ProxyMetrics;
 import me.internalizable.numdrassl.server.health.BackendHealthCache;
+import me.internalizable.numdrassl.server.network.ConnectionAdmission;
+import me.internalizable.numdrassl.server.network.ConnectionSteering;
+import me.internalizable.numdrassl.server.network.HandshakeLoadMonitor;
+import me.internalizable.numdrassl.server.network.NetworkTransport;
+import me.internalizable.numdrassl.server.network.RetryTokenHandler;
+import me.internalizable.numdrassl.server.network.ShardedConnectionIdGenerator;
 import me.internalizable.numdrassl.server.ssl.CertificateGenerator;
 import me.internalizable.numdrassl.server.transfer.PlayerTransfer;
 import me.internalizable.numdrassl.server.transfer.ReferralManager;
 import me.internalizable.numdrassl.session.ProxySession;
 import me.internalizable.numdrassl.session.SessionManager;
+import me.internalizable.numdrassl.session.channel.WindowBudget;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -41,6 +49,8 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.io.File;
 import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.TimeUnit;
 
@@ -64,6 +74,9 @@ public final class ProxyCore {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ProxyCore.class);
 
+    // Connection IDs carry the owning socket's index in one byte
+    private static final int MAX_SERVER_SOCKETS = 256;
+
     private static final String[] ALPN_PROTOCOLS = {
         "hytale/2", "hytale/1"
     };
@@ -79,10 +92,15 @@ public final class ProxyCore {
     private final ReferralManager referralManager;
     private final PlayerTransfer playerTransfer;
     private final BackendHealthCache backendHealthCache;
+    private final WindowBudget windowBudget;
+    private final HandshakeLoadMonitor handshakeLoad;
+    private final RetryTokenHandler retryTokenHandler;
+    private final ConnectionAdmission admission;
 
     // Networking
+    private NetworkTransport transport;
     private EventLoopGroup eventLoopGroup;
-    private Channel serverChannel;
+    private final List<Channel> serverChannels = new ArrayList<>();
 
     // API layer
     private NumdrasslProxy apiProxy;
@@ -104,6 +122,14 @@ public final class ProxyCore {
         this.referralManager = new ReferralManager(this);
         this.playerTransfer = new PlayerTransfer(this);
         this.backendHealthCache = new BackendHealthCache();
+        this.windowBudget = new WindowBudget(config.getWindowMemoryBudgetBytes());
+        this.handshakeLoad = new HandshakeLoadMonitor(
+            config.getRetryHandshakeRateThreshold(), config.getRetryHalfOpenThreshold());
+        this.retryTokenHandler = new RetryTokenHandler(handshakeLoad, config.getRetryKeyRotationSeconds());
+        this.admission = new ConnectionAdmission(
+            config.getConnectionRatePerIp(), config.getConnectionBurstPerIp(),
+            config.getConnectionRatePerSubnet(), config.getConnectionBurstPerSubnet(),
+            config.getMaxConcurrentHandshakes(), handshakeLoad);
         this.authenticator = createAuthenticator();
     }
 
@@ -134,6 +160,7 @@ public final class ProxyCore {
 
         QuicSslContext sslContext = createSslContext();
         startNetworking(sslContext);
+        backendConnector.startConnectionPool();
         initializeApi();
 
         running = true;
@@ -160,6 +187,7 @@ public final class ProxyCore {
         LOGGER.info("Starting Hytale QUIC Proxy Server...");
         LOGGER.info("Bind: {}:{}", config.getBindAddress(), config.getBindPort());
         LOGGER.info("Debug mode: {}", config.isDebugMode());
+        LOGGER.info("Passthrough mode: {}", config.isPassthroughMode());
         LOGGER.info("Backend auth: Secret-based (HMAC referral)");
     }
 
@@ -230,40 +258,76 @@ public final class ProxyCore {
     // ==================== Networking ====================
 
     private void startNetworking(QuicSslContext sslContext) throws InterruptedException {
-        int threads = Runtime.getRuntime().availableProcessors();
-        eventLoopGroup = new NioEventLoopGroup(threads);
-
-        ChannelHandler serverCodec = buildServerCodec(sslContext);
+        int threads = config.getIoThreads() > 0
+            ? config.getIoThreads()
+            : Runtime.getRuntime().availableProcessors();
+        transport = NetworkTransport.select(config.isNativeTransport());
+        eventLoopGroup = transport.newEventLoopGroup(threads);
 
         Bootstrap bootstrap = new Bootstrap()
             .group(eventLoopGroup)
-            .channel(NioDatagramChannel.class)
-            .handler(serverCodec);
+            .channel(transport.datagramChannelClass());
+
+        // With SO_REUSEPORT, bind one socket per event loop so the kernel spreads
+        // inbound datagrams (hashed by source address) across all threads
+        int sockets = 1;
+        if (transport.supportsReusePort()) {
+            transport.reusePort(bootstrap);
+            sockets = Math.min(threads, MAX_SERVER_SOCKETS);
+        }
+        if (isUdpOffloadEnabled()) {
+            transport.receiveCoalesced(bootstrap);
+        }
 
         InetSocketAddress bindAddress = new InetSocketAddress(
             config.getBindAddress(),
             config.getBindPort()
         );
 
-        serverChannel = bootstrap.bind(bindAddress).sync().channel();
+        // The QUIC codec keeps per-socket connection state, so every socket gets its own.
+        // Connection IDs name the owning socket so misrouted datagrams can be steered back.
+        byte[] connectionIdSecret = ShardedConnectionIdGenerator.newSecret();
+        ConnectionSteering steering = sockets > 1 ? new ConnectionSteering() : null;
+        for (int i = 0; i < sockets; i++) {
+            int shard = i;
+            Bootstrap socketBootstrap = bootstrap.clone().handler(new ChannelInitializer<DatagramChannel>() {
+                @Override
+                protected void initChannel(DatagramChannel ch) {
+                    if (steering != null) {
+                        ch.pipeline().addLast(steering.handler(shard));
+                    }
+                    ch.pipeline().addLast(buildServerCodec(sslContext,
+                        new ShardedConnectionIdGenerator(shard, connectionIdSecret)));
+                }
+            });
+            serverChannels.add(socketBootstrap.bind(bindAddress).sync().channel());
+        }
+        if (steering != null) {
+            steering.setSockets(serverChannels);
+        }
 
-        LOGGER.info("Proxy started on {}:{}", config.getBindAddress(), config.getBindPort());
+        LOGGER.info("Proxy started on {}:{} ({} transport, {} I/O threads, {} socket(s), UDP offload {})",
+            config.getBindAddress(), config.getBindPort(), transport, threads, sockets,
+            isUdpOffloadEnabled() ? "on" : "off");
         logBackendServers();
     }
 
-    private ChannelHandler buildServerCodec(QuicSslContext sslContext) {
+    private ChannelHandler buildServerCodec(QuicSslContext sslContext, QuicConnectionIdGenerator idGenerator) {
         boolean debugMode = config.isDebugMode();
 
-        return new QuicServerCodecBuilder()
+        QuicServerCodecBuilder builder = new QuicServerCodecBuilder()
             .sslContext(sslContext)
+            .localConnectionIdLength(ShardedConnectionIdGenerator.ID_LENGTH)
+            .connectionIdAddressGenerator(idGenerator)
             .congestionControlAlgorithm(QuicCongestionControlAlgorithm.BBR)
             .maxIdleTimeout(config.getConnectionTimeoutSeconds(), TimeUnit.SECONDS)
-            .initialMaxData(10_000_000)
-            .initialMaxStreamDataBidirectionalLocal(1_000_000)
-            .initialMaxStreamDataBidirectionalRemote(1_000_000)
-            .initialMaxStreamsBidirectional(100)
-            .initialMaxStreamsUnidirectional(100)
-            .tokenHandler(InsecureQuicTokenHandler.INSTANCE)
+            .initialMaxData(config.getQuicInitialMaxData())
+            .initialMaxStreamDataBidirectionalLocal(config.getQuicInitialMaxStreamData())
+            .initialMaxStreamDataBidirectionalRemote(config.getQuicInitialMaxStreamData())
+            .initialMaxStreamDataUnidirectional(config.getQuicInitialMaxStreamData())
+            .initialMaxStreamsBidirectional(config.getQuicMaxStreams())
+            .initialMaxStreamsUnidirectional(config.getQuicMaxStreams())
+            .tokenHandler(retryTokenHandler)
             .handler(new ChannelInitializer<QuicChannel>() {
                 @Override
                 protected void initChannel(QuicChannel ch) {
@@ -275,17 +339,23 @@ public final class ProxyCore {
                 protected void initChannel(QuicStreamChannel ch) {
                     initializeClientStream(ch, debugMode);
                 }
-            })
-            .build();
+            });
+        if (isUdpOffloadEnabled()) {
+            transport.sendSegmented(builder, config.getUdpMaxSegments());
+        }
+        return builder.build();
     }
 
     private void handleNewConnection(QuicChannel quicChannel) {
-        if (sessionManager.getSessionCount() >= config.getMaxConnections()) {
-            LOGGER.warn("Max connections reached, rejecting connection");
-            ProxyMetrics.getInstance().recordConnectionRejected();
+        ConnectionAdmission.Rejection rejection = admission.admit(quicChannel.remoteSocketAddress(),
+            sessionManager.getSessionCount(), config.getMaxConnections());
+        if (rejection != null) {
+            // No logging here: rejections come in floods and are counted per reason instead
+            ProxyMetrics.getInstance().recordConnectionRejected(rejection.tag());
             quicChannel.close();
             return;
         }
+        handshakeLoad.track(quicChannel);
 
         ProxySession session = new ProxySession(this, quicChannel);
         sessionManager.addSession(session);
@@ -307,8 +377,16 @@ public final class ProxyCore {
             ch.close();
             return;
         }
+
+        // The first bidirectional stream carries the session; later ones are relayed in pairs
+        if (session.getClientStream() != null || ch.type() != QuicStreamType.BIDIRECTIONAL) {
+            StreamPairHandler.acceptClientStream(session, eventManager, config, ch);
+            return;
+        }
+
         session.setClientStream(ch);
-        ch.pipeline().addLast(new ProxyPacketDecoder("client", debugMode));
+        ch.pipeline().addLast(new ProxyPacketDecoder("client", debugMode, eventManager::isPacketClaimed,
+            config.getCutThroughThresholdBytes(), true));
         ch.pipeline().addLast(new ProxyPacketEncoder("client", debugMode));
         ch.pipeline().addLast(new ClientPacketHandler(this, session));
     }
@@ -380,9 +458,10 @@ public final class ProxyCore {
         referralManager.shutdown();
         authenticator.shutdown();
 
-        if (serverChannel != null) {
+        for (Channel serverChannel : serverChannels) {
             serverChannel.close().syncUninterruptibly();
         }
+        serverChannels.clear();
 
         if (eventLoopGroup != null) {
             eventLoopGroup.shutdownGracefully().syncUninterruptibly();
@@ -410,6 +489,49 @@ public final class ProxyCore {
         return eventManager;
     }
 
+    /**
+     * Whether UDP sockets use segmentation offload. Only meaningful once networking
+     * has been started.
+     */
+    public boolean isUdpOffloadEnabled() {
+        return config.isUdpOffload() && transport != null && transport.supportsSegmentation();
+    }
+
+    /**
+     * Gets the memory budget shared by all sessions' stream window tuners.
+     */
+    @Nonnull
+    public WindowBudget getWindowBudget() {
+        return windowBudget;
+    }
+
+    /**
+     * Gets the event loop group serving client connections.
+     *
+     * @throws IllegalStateException if networking has not been started
+     */
+    @Nonnull
+    public EventLoopGroup getEventLoopGroup() {
+        if (eventLoopGroup == null) {
+            throw new IllegalStateException("Networking has not been started");
+        }
+        return eventLoopGroup;
+    }
+
+    /**
+     * Gets the transport used by {@link #getEventLoopGroup()}. Channels registered
+     * on that group must use {@link NetworkTransport#datagramChannelClass()}.
+     *
+     * @throws IllegalStateException if networking has not been started
+     */
+    @Nonnull
+    public NetworkTransport getTransport() {
+        if (transport == null) {
+            throw new IllegalStateException("Networking has not been started");
+        }
+        return transport;
+    }
+
     @Nonnull
     public BackendConnector getBackendConnector() {
         return backendConnector;
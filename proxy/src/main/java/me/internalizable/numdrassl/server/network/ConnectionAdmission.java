@@ -0,0 +1,187 @@
+package me.internalizable.numdrassl.server.network;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides whether a new client connection may become a session.
+ *
+ * <p>Checked before any session, authentication or logging work is done. New
+ * connections are limited by token buckets per source IP and per subnet (/24 for
+ * IPv4, /64 for IPv6), by the number of handshakes in progress and by the total
+ * session count.</p>
+ *
+ * <p>Buckets that have refilled completely carry no state worth keeping and are
+ * swept out periodically, so the maps only hold recently active sources.</p>
+ */
+public final class ConnectionAdmission {
+
+    /**
+     * Why a connection was turned away. The name doubles as the metrics tag.
+     */
+    public enum Rejection {
+        IP_RATE("ip_rate"),
+        SUBNET_RATE("subnet_rate"),
+        HANDSHAKES("handshakes"),
+        MAX_CONNECTIONS("max_connections");
+
+        private final String tag;
+
+        Rejection(String tag) {
+            this.tag = tag;
+        }
+
+        @Nonnull
+        public String tag() {
+            return tag;
+        }
+    }
+
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private final Limit perIp;
+    private final Limit perSubnet;
+    private final int maxHandshakes;
+    private final HandshakeLoadMonitor handshakeLoad;
+
+    private final Map<Key, TokenBucket> ipBuckets = new ConcurrentHashMap<>();
+    private final Map<Key, TokenBucket> subnetBuckets = new ConcurrentHashMap<>();
+    private final AtomicLong lastSweep = new AtomicLong(System.nanoTime());
+
+    /**
+     * @param ipRate        new connections per second per IP (0 = unlimited)
+     * @param ipBurst       connections an IP may open at once
+     * @param subnetRate    new connections per second per subnet (0 = unlimited)
+     * @param subnetBurst   connections a subnet may open at once
+     * @param maxHandshakes handshakes in progress at which new connections are rejected (0 = unlimited)
+     * @param handshakeLoad source of the in-progress handshake count
+     */
+    public ConnectionAdmission(int ipRate, int ipBurst, int subnetRate, int subnetBurst, int maxHandshakes,
+                               @Nonnull HandshakeLoadMonitor handshakeLoad) {
+        this.perIp = new Limit(ipRate, ipBurst);
+        this.perSubnet = new Limit(subnetRate, subnetBurst);
+        this.maxHandshakes = maxHandshakes;
+        this.handshakeLoad = Objects.requireNonNull(handshakeLoad, "handshakeLoad");
+    }
+
+    /**
+     * Admits or rejects a connection from {@code remote}.
+     *
+     * @param sessionCount the current number of sessions
+     * @param maxSessions  the configured session limit
+     * @return the reason for rejecting the connection, or null if it is admitted
+     */
+    @Nullable
+    public Rejection admit(@Nullable SocketAddress remote, int sessionCount, int maxSessions) {
+        if (sessionCount >= maxSessions) {
+            return Rejection.MAX_CONNECTIONS;
+        }
+        if (maxHandshakes > 0 && handshakeLoad.halfOpen() >= maxHandshakes) {
+            return Rejection.HANDSHAKES;
+        }
+        if (!(remote instanceof InetSocketAddress inet) || inet.getAddress() == null) {
+            return null;
+        }
+
+        long now = System.nanoTime();
+        sweepIfDue(now);
+
+        InetAddress address = inet.getAddress();
+        byte[] ip = address.getAddress();
+        if (perIp.enabled() && !bucket(ipBuckets, new Key(ip), perIp, now).tryAcquire(now)) {
+            return Rejection.IP_RATE;
+        }
+
+        byte[] subnet = Arrays.copyOf(ip, ip.length == 4 ? 3 : 8);
+        if (perSubnet.enabled() && !bucket(subnetBuckets, new Key(subnet), perSubnet, now).tryAcquire(now)) {
+            return Rejection.SUBNET_RATE;
+        }
+        return null;
+    }
+
+    private static TokenBucket bucket(Map<Key, TokenBucket> buckets, Key key, Limit limit, long now) {
+        return buckets.computeIfAbsent(key, k -> new TokenBucket(limit, now));
+    }
+
+    private void sweepIfDue(long now) {
+        long last = lastSweep.get();
+        if (now - last < SWEEP_INTERVAL_NANOS || !lastSweep.compareAndSet(last, now)) {
+            return;
+        }
+        ipBuckets.values().removeIf(bucket -> bucket.isFull(now));
+        subnetBuckets.values().removeIf(bucket -> bucket.isFull(now));
+    }
+
+    // ==================== Token Buckets ====================
+
+    private record Limit(double tokensPerNano, double burst) {
+
+        Limit(int perSecond, int burst) {
+            this(perSecond / (double) TimeUnit.SECONDS.toNanos(1), Math.max(1, Math.max(burst, perSecond)));
+        }
+
+        boolean enabled() {
+            return tokensPerNano > 0;
+        }
+    }
+
+    private static final class TokenBucket {
+
+        private final Limit limit;
+        private double tokens;
+        private long updatedNanos;
+
+        TokenBucket(Limit limit, long now) {
+            this.limit = limit;
+            this.tokens = limit.burst();
+            this.updatedNanos = now;
+        }
+
+        synchronized boolean tryAcquire(long now) {
+            refill(now);
+            if (tokens < 1) {
+                return false;
+            }
+            tokens--;
+            return true;
+        }
+
+        synchronized boolean isFull(long now) {
+            refill(now);
+            return tokens >= limit.burst();
+        }
+
+        private void refill(long now) {
+            long elapsed = now - updatedNanos;
+            if (elapsed > 0) {
+                tokens = Math.min(limit.burst(), tokens + elapsed * limit.tokensPerNano());
+                updatedNanos = now;
+            }
+        }
+    }
+
+    /**
+     * Address bytes as a map key.
+     */
+    private record Key(byte[] bytes) {
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key other && Arrays.equals(bytes, other.bytes);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(bytes);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package me.internalizable.numdrassl.server.network;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.socket.DatagramPacket;
+import io.netty.util.ReferenceCountUtil;
+
+import javax.annotation.Nonnull;
+import java.util.List;
+
+/**
+ * Routes inbound datagrams to the server socket that owns their connection.
+ *
+ * <p>With {@code SO_REUSEPORT} the kernel picks a socket by hashing the source
+ * address, so a client whose address or port changes lands on a socket whose QUIC
+ * codec has never seen its connection. The connection IDs the server issues start
+ * with the owning socket's index (see {@link ShardedConnectionIdGenerator}); this
+ * handler reads that byte from short-header and Handshake packets and hands
+ * misrouted datagrams to the owning socket's pipeline on its event loop.</p>
+ *
+ * <p>Initial and 0-RTT packets carry an ID the client chose, so they are never
+ * steered and open their connection on the socket they arrive at.</p>
+ */
+public final class ConnectionSteering {
+
+    private static final int LONG_HEADER_BIT = 0x80;
+    private static final int LONG_PACKET_TYPE_MASK = 0x30;
+    private static final int HANDSHAKE_PACKET_TYPE = 0x20;
+    // first byte, version (4), DCID length (1)
+    private static final int LONG_HEADER_DCID_OFFSET = 6;
+    private static final int SHORT_HEADER_DCID_OFFSET = 1;
+
+    private volatile Channel[] sockets = new Channel[0];
+
+    /**
+     * Sets the bound server sockets, in the order of their shard index.
+     */
+    public void setSockets(@Nonnull List<Channel> sockets) {
+        this.sockets = sockets.toArray(new Channel[0]);
+    }
+
+    /**
+     * Creates the handler placed in front of the QUIC codec of socket {@code shard}.
+     */
+    @Nonnull
+    public ChannelHandler handler(int shard) {
+        return new SteeringHandler(shard);
+    }
+
+    private final class SteeringHandler extends ChannelInboundHandlerAdapter {
+
+        private final int shard;
+
+        SteeringHandler(int shard) {
+            this.shard = shard;
+        }
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+            if (msg instanceof DatagramPacket packet) {
+                Channel owner = owner(packet.content());
+                if (owner != null && owner != ctx.channel()) {
+                    steer(owner, packet);
+                    return;
+                }
+            }
+            ctx.fireChannelRead(msg);
+        }
+
+        private Channel owner(ByteBuf content) {
+            int start = content.readerIndex();
+            if (content.readableBytes() < LONG_HEADER_DCID_OFFSET + 1) {
+                return null;
+            }
+
+            short first = content.getUnsignedByte(start);
+            int idOffset;
+            if ((first & LONG_HEADER_BIT) == 0) {
+                idOffset = SHORT_HEADER_DCID_OFFSET;
+            } else if ((first & LONG_PACKET_TYPE_MASK) == HANDSHAKE_PACKET_TYPE
+                    && content.getUnsignedByte(start + LONG_HEADER_DCID_OFFSET - 1)
+                        == ShardedConnectionIdGenerator.ID_LENGTH) {
+                idOffset = LONG_HEADER_DCID_OFFSET;
+            } else {
+                return null;
+            }
+
+            int target = ShardedConnectionIdGenerator.shardOf(content.getByte(start + idOffset));
+            Channel[] current = sockets;
+            return target != shard && target < current.length ? current[target] : null;
+        }
+
+        private void steer(Channel owner, DatagramPacket packet) {
+            if (!owner.isActive()) {
+                ReferenceCountUtil.release(packet);
+                return;
+            }
+            // The QUIC codec processes what it has read on read-complete
+            owner.eventLoop().execute(() -> {
+                owner.pipeline().fireChannelRead(packet);
+                owner.pipeline().fireChannelReadComplete();
+            });
+        }
+    }
+}
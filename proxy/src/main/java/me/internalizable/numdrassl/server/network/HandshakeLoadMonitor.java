@@ -0,0 +1,96 @@
+package me.internalizable.numdrassl.server.network;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.incubator.codec.quic.QuicChannel;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks how many client handshakes are being started and how many are still unfinished.
+ *
+ * <p>{@link RetryTokenHandler} asks this monitor whether a new Initial packet must
+ * prove its source address with a Retry round trip. Below both thresholds handshakes
+ * start immediately; once either is reached, every new connection is validated first.
+ * A threshold of 0 is disabled, as with the other handshake limits.</p>
+ *
+ * <p>Shared by all server sockets, so every counter is atomic.</p>
+ */
+public final class HandshakeLoadMonitor {
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final int rateThreshold;
+    private final int halfOpenThreshold;
+
+    private final AtomicInteger halfOpen = new AtomicInteger();
+    private final AtomicLong windowSecond = new AtomicLong(System.nanoTime() / NANOS_PER_SECOND);
+    private final AtomicInteger windowAttempts = new AtomicInteger();
+    private volatile int previousWindowAttempts;
+
+    /**
+     * @param rateThreshold     new handshakes per second above which Retry is required (0 = never)
+     * @param halfOpenThreshold unfinished handshakes at which Retry is required (0 = never)
+     */
+    public HandshakeLoadMonitor(int rateThreshold, int halfOpenThreshold) {
+        this.rateThreshold = Math.max(0, rateThreshold);
+        this.halfOpenThreshold = Math.max(0, halfOpenThreshold);
+    }
+
+    /**
+     * Counts a handshake attempt without a token.
+     *
+     * @return true if the proxy is under handshake load and the attempt should be retried
+     */
+    boolean recordAttempt() {
+        long now = System.nanoTime() / NANOS_PER_SECOND;
+        long current = windowSecond.get();
+        if (now != current && windowSecond.compareAndSet(current, now)) {
+            int finished = windowAttempts.getAndSet(0);
+            previousWindowAttempts = now - current == 1 ? finished : 0;
+        }
+        int attempts = windowAttempts.incrementAndGet();
+
+        boolean rateExceeded = rateThreshold > 0
+            && (attempts > rateThreshold || previousWindowAttempts > rateThreshold);
+        return rateExceeded || (halfOpenThreshold > 0 && halfOpen.get() >= halfOpenThreshold);
+    }
+
+    /**
+     * Counts a new connection as half-open until its handshake completes or it closes.
+     */
+    public void track(@Nonnull QuicChannel channel) {
+        if (channel.isActive()) {
+            return;
+        }
+
+        AtomicBoolean pending = new AtomicBoolean(true);
+        halfOpen.incrementAndGet();
+        channel.pipeline().addFirst(new ChannelInboundHandlerAdapter() {
+            @Override
+            public void channelActive(ChannelHandlerContext ctx) throws Exception {
+                if (pending.compareAndSet(true, false)) {
+                    halfOpen.decrementAndGet();
+                }
+                ctx.pipeline().remove(this);
+                super.channelActive(ctx);
+            }
+        });
+        channel.closeFuture().addListener(future -> {
+            if (pending.compareAndSet(true, false)) {
+                halfOpen.decrementAndGet();
+            }
+        });
+    }
+
+    /**
+     * Returns the number of connections whose handshake has not finished.
+     */
+    public int halfOpen() {
+        return halfOpen.get();
+    }
+}
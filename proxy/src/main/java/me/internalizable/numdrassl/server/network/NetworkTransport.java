@@ -0,0 +1,205 @@
+package me.internalizable.numdrassl.server.network;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.FixedRecvByteBufAllocator;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.channel.epoll.EpollDatagramChannel;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.DatagramChannel;
+import io.netty.channel.socket.nio.NioDatagramChannel;
+import io.netty.incubator.codec.quic.EpollQuicUtils;
+import io.netty.incubator.codec.quic.QuicCodecBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Netty transport used for all UDP sockets of the proxy.
+ *
+ * <p>{@link #EPOLL} is preferred on Linux. It supports {@code SO_REUSEPORT}, which lets
+ * the proxy bind one UDP socket per event loop on the same port so the kernel spreads
+ * inbound datagrams across threads. {@link #NIO} is the portable fallback and binds a
+ * single socket.</p>
+ *
+ * <p>On kernels with UDP segmentation offload, {@link #EPOLL} can also send the QUIC
+ * packets of one flush as a single GSO super-datagram and receive coalesced datagrams
+ * with GRO. Support is probed at runtime; without it, sends and receives stay one
+ * datagram per syscall.</p>
+ */
+public enum NetworkTransport {
+
+    EPOLL {
+        @Nonnull
+        @Override
+        public EventLoopGroup newEventLoopGroup(int threads) {
+            return new EpollEventLoopGroup(threads);
+        }
+
+        @Nonnull
+        @Override
+        public Class<? extends DatagramChannel> datagramChannelClass() {
+            return EpollDatagramChannel.class;
+        }
+
+        @Override
+        public boolean supportsReusePort() {
+            return true;
+        }
+
+        @Nonnull
+        @Override
+        public Bootstrap reusePort(@Nonnull Bootstrap bootstrap) {
+            return bootstrap.option(EpollChannelOption.SO_REUSEPORT, true);
+        }
+
+        @Override
+        public boolean supportsSegmentation() {
+            return EpollDatagramChannel.isSegmentedDatagramPacketSupported();
+        }
+
+        @Nonnull
+        @Override
+        public Bootstrap receiveCoalesced(@Nonnull Bootstrap bootstrap) {
+            if (!supportsSegmentation()) {
+                return bootstrap;
+            }
+            // A GRO read can carry up to 64 KiB of coalesced datagrams
+            return bootstrap
+                .option(EpollChannelOption.UDP_GRO, true)
+                .option(ChannelOption.RCVBUF_ALLOCATOR, new FixedRecvByteBufAllocator(MAX_UDP_PAYLOAD));
+        }
+
+        @Nonnull
+        @Override
+        public <B extends QuicCodecBuilder<B>> B sendSegmented(@Nonnull B builder, int maxSegments) {
+            if (!supportsSegmentation()) {
+                return builder;
+            }
+            return builder.segmentedDatagramPacketAllocator(EpollQuicUtils.newSegmentedAllocator(maxSegments));
+        }
+    },
+
+    NIO {
+        @Nonnull
+        @Override
+        public EventLoopGroup newEventLoopGroup(int threads) {
+            return new NioEventLoopGroup(threads);
+        }
+
+        @Nonnull
+        @Override
+        public Class<? extends DatagramChannel> datagramChannelClass() {
+            return NioDatagramChannel.class;
+        }
+
+        @Override
+        public boolean supportsReusePort() {
+            return false;
+        }
+
+        @Nonnull
+        @Override
+        public Bootstrap reusePort(@Nonnull Bootstrap bootstrap) {
+            return bootstrap;
+        }
+
+        @Override
+        public boolean supportsSegmentation() {
+            return false;
+        }
+
+        @Nonnull
+        @Override
+        public Bootstrap receiveCoalesced(@Nonnull Bootstrap bootstrap) {
+            return bootstrap;
+        }
+
+        @Nonnull
+        @Override
+        public <B extends QuicCodecBuilder<B>> B sendSegmented(@Nonnull B builder, int maxSegments) {
+            return builder;
+        }
+    };
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NetworkTransport.class);
+
+    private static final int MAX_UDP_PAYLOAD = 65535;
+
+    /**
+     * Selects the best available transport.
+     *
+     * @param preferNative whether the native transport should be used when available
+     * @return {@link #EPOLL} if requested and available, {@link #NIO} otherwise
+     */
+    @Nonnull
+    public static NetworkTransport select(boolean preferNative) {
+        if (!preferNative) {
+            return NIO;
+        }
+        if (Epoll.isAvailable()) {
+            return EPOLL;
+        }
+        LOGGER.info("Native epoll transport unavailable, using NIO: {}",
+            String.valueOf(Epoll.unavailabilityCause()));
+        return NIO;
+    }
+
+    /**
+     * Creates an event loop group for this transport.
+     *
+     * @param threads the number of event loops
+     */
+    @Nonnull
+    public abstract EventLoopGroup newEventLoopGroup(int threads);
+
+    /**
+     * Gets the datagram channel class matching this transport's event loops.
+     */
+    @Nonnull
+    public abstract Class<? extends DatagramChannel> datagramChannelClass();
+
+    /**
+     * Whether several sockets can be bound to the same address and port.
+     */
+    public abstract boolean supportsReusePort();
+
+    /**
+     * Enables {@code SO_REUSEPORT} on a bootstrap. Does nothing if unsupported.
+     *
+     * @param bootstrap the bootstrap to configure
+     * @return the same bootstrap
+     */
+    @Nonnull
+    public abstract Bootstrap reusePort(@Nonnull Bootstrap bootstrap);
+
+    /**
+     * Whether the running kernel supports UDP segmentation offload (GSO and GRO).
+     */
+    public abstract boolean supportsSegmentation();
+
+    /**
+     * Enables GRO on a bootstrap, so the kernel hands coalesced datagrams up in one
+     * read. Does nothing if unsupported.
+     *
+     * @param bootstrap the bootstrap to configure
+     * @return the same bootstrap
+     */
+    @Nonnull
+    public abstract Bootstrap receiveCoalesced(@Nonnull Bootstrap bootstrap);
+
+    /**
+     * Makes a QUIC codec send the packets of a flush as one GSO datagram. Does nothing
+     * if unsupported.
+     *
+     * @param builder     the codec builder to configure
+     * @param maxSegments the most QUIC packets coalesced into one send
+     * @return the same builder
+     */
+    @Nonnull
+    public abstract <B extends QuicCodecBuilder<B>> B sendSegmented(@Nonnull B builder, int maxSegments);
+}
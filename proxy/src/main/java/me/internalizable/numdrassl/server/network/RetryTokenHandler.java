@@ -0,0 +1,172 @@
+package me.internalizable.numdrassl.server.network;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.incubator.codec.quic.QuicTokenHandler;
+import me.internalizable.numdrassl.common.HmacSigner;
+import me.internalizable.numdrassl.profiling.ProxyMetrics;
+
+import javax.annotation.Nonnull;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Issues and validates stateless QUIC Retry tokens signed with rotating HMAC keys.
+ *
+ * <p>A token binds the client's IP address and original destination connection ID to
+ * the time it was issued:</p>
+ * <pre>
+ * version (1) | key id (1) | issued millis (8) | HMAC-SHA256 truncated (16) | original DCID
+ * </pre>
+ *
+ * <p>A Retry is only sent while the {@link HandshakeLoadMonitor} reports load, so a
+ * normal connect costs no extra round trip. Tokens are accepted for
+ * {@value #TOKEN_LIFETIME_MILLIS} ms and only under the current or previous key, so a
+ * key is never trusted for more than two rotation periods. Invalid tokens are dropped
+ * before any connection state is allocated.</p>
+ *
+ * <p>Called from every server socket's event loop.</p>
+ */
+public final class RetryTokenHandler implements QuicTokenHandler {
+
+    private static final byte VERSION = 1;
+    private static final int KEY_BYTES = 32;
+    private static final int MAC_BYTES = 16;
+    private static final int HEADER_BYTES = 1 + 1 + Long.BYTES + MAC_BYTES;
+    private static final int MAX_CONNECTION_ID_BYTES = 20;
+    private static final long TOKEN_LIFETIME_MILLIS = 10_000;
+    private static final long CLOCK_SKEW_MILLIS = 1_000;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final HandshakeLoadMonitor loadMonitor;
+    private final long rotationNanos;
+    private final AtomicReference<KeyRing> keys;
+
+    /**
+     * @param loadMonitor     decides whether a tokenless Initial needs a Retry
+     * @param rotationSeconds how often the signing key is replaced (at least the token lifetime)
+     */
+    public RetryTokenHandler(@Nonnull HandshakeLoadMonitor loadMonitor, int rotationSeconds) {
+        this.loadMonitor = Objects.requireNonNull(loadMonitor, "loadMonitor");
+        this.rotationNanos = Math.max(TimeUnit.SECONDS.toNanos(rotationSeconds),
+            TimeUnit.MILLISECONDS.toNanos(TOKEN_LIFETIME_MILLIS));
+        SigningKey first = SigningKey.generate((byte) 0);
+        this.keys = new AtomicReference<>(new KeyRing(first, null, System.nanoTime()));
+    }
+
+    // ==================== QuicTokenHandler ====================
+
+    @Override
+    public boolean writeToken(ByteBuf out, ByteBuf dcid, InetSocketAddress address) {
+        if (!loadMonitor.recordAttempt()) {
+            return false;
+        }
+
+        SigningKey key = currentKeys().current;
+        long issued = System.currentTimeMillis();
+        byte[] mac = key.sign(issued, address, dcid, dcid.readerIndex(), dcid.readableBytes());
+
+        out.writeByte(VERSION);
+        out.writeByte(key.id);
+        out.writeLong(issued);
+        out.writeBytes(mac, 0, MAC_BYTES);
+        out.writeBytes(dcid, dcid.readerIndex(), dcid.readableBytes());
+        ProxyMetrics.getInstance().recordRetrySent();
+        return true;
+    }
+
+    @Override
+    public int validateToken(ByteBuf token, InetSocketAddress address) {
+        int start = token.readerIndex();
+        int dcidLength = token.readableBytes() - HEADER_BYTES;
+        if (dcidLength < 0 || dcidLength > MAX_CONNECTION_ID_BYTES || token.getByte(start) != VERSION) {
+            return reject();
+        }
+
+        long issued = token.getLong(start + 2);
+        long age = System.currentTimeMillis() - issued;
+        if (age > TOKEN_LIFETIME_MILLIS || age < -CLOCK_SKEW_MILLIS) {
+            return reject();
+        }
+
+        SigningKey key = currentKeys().find(token.getByte(start + 1));
+        if (key == null) {
+            return reject();
+        }
+
+        byte[] expected = key.sign(issued, address, token, start + HEADER_BYTES, dcidLength);
+        byte[] actual = new byte[MAC_BYTES];
+        token.getBytes(start + 2 + Long.BYTES, actual);
+        if (!MessageDigest.isEqual(actual, Arrays.copyOf(expected, MAC_BYTES))) {
+            return reject();
+        }
+        return HEADER_BYTES;
+    }
+
+    @Override
+    public int maxTokenLength() {
+        return HEADER_BYTES + MAX_CONNECTION_ID_BYTES;
+    }
+
+    private static int reject() {
+        ProxyMetrics.getInstance().recordRetryTokenRejected();
+        return -1;
+    }
+
+    // ==================== Key Rotation ====================
+
+    private KeyRing currentKeys() {
+        KeyRing ring = keys.get();
+        long now = System.nanoTime();
+        if (now - ring.createdNanos < rotationNanos) {
+            return ring;
+        }
+
+        KeyRing rotated = new KeyRing(SigningKey.generate((byte) (ring.current.id + 1)), ring.current, now);
+        // If another thread rotated first, use its ring
+        return keys.compareAndSet(ring, rotated) ? rotated : keys.get();
+    }
+
+    private record KeyRing(SigningKey current, SigningKey previous, long createdNanos) {
+
+        SigningKey find(byte id) {
+            if (current.id == id) {
+                return current;
+            }
+            return previous != null && previous.id == id ? previous : null;
+        }
+    }
+
+    private static final class SigningKey {
+
+        private final byte id;
+        private final HmacSigner signer;
+
+        private SigningKey(byte id, byte[] secret) {
+            this.id = id;
+            this.signer = new HmacSigner(secret);
+        }
+
+        static SigningKey generate(byte id) {
+            byte[] secret = new byte[KEY_BYTES];
+            RANDOM.nextBytes(secret);
+            return new SigningKey(id, secret);
+        }
+
+        byte[] sign(long issued, InetSocketAddress address, ByteBuf dcid, int offset, int length) {
+            byte[] ip = address.getAddress().getAddress();
+            ByteBuffer data = ByteBuffer.allocate(1 + Long.BYTES + ip.length + length)
+                .put(id)
+                .putLong(issued)
+                .put(ip);
+            dcid.getBytes(offset, data);
+            return signer.sign(data.flip());
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package me.internalizable.numdrassl.server.network;
+
+import io.netty.incubator.codec.quic.QuicConnectionIdGenerator;
+import me.internalizable.numdrassl.common.HmacSigner;
+
+import java.nio.ByteBuffer;
+import java.security.SecureRandom;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Connection ID generator that records which server socket owns a connection.
+ *
+ * <p>The first byte of every ID the server issues is the index of the socket the
+ * connection lives on. {@link ConnectionSteering} reads it back from the destination
+ * connection ID of each datagram, so packets that the kernel hashes to another socket,
+ * for example after a NAT rebinding, still reach their connection.</p>
+ *
+ * <p>IDs derived from a client's original destination ID are an HMAC of it, so a
+ * retransmitted Initial maps to the connection the first one created. The secret is
+ * shared by all sockets of one proxy.</p>
+ */
+public final class ShardedConnectionIdGenerator implements QuicConnectionIdGenerator {
+
+    /**
+     * Length of the IDs the server issues, the QUIC maximum.
+     */
+    public static final int ID_LENGTH = 20;
+
+    private final byte shard;
+    private final HmacSigner signer;
+
+    /**
+     * @param shard  index of the owning socket, 0 to 255
+     * @param secret key for deriving IDs from client-chosen IDs
+     */
+    public ShardedConnectionIdGenerator(int shard, byte[] secret) {
+        if (shard < 0 || shard > 0xFF) {
+            throw new IllegalArgumentException("shard must be between 0 and 255: " + shard);
+        }
+        this.shard = (byte) shard;
+        this.signer = new HmacSigner(secret);
+    }
+
+    /**
+     * Creates a random secret for {@link #ShardedConnectionIdGenerator(int, byte[])}.
+     */
+    public static byte[] newSecret() {
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        return secret;
+    }
+
+    /**
+     * Reads the owning socket index from a connection ID's first byte.
+     */
+    public static int shardOf(byte firstIdByte) {
+        return firstIdByte & 0xFF;
+    }
+
+    @Override
+    public ByteBuffer newId(int length) {
+        checkLength(length);
+        byte[] id = new byte[length];
+        ThreadLocalRandom.current().nextBytes(id);
+        id[0] = shard;
+        return ByteBuffer.wrap(id);
+    }
+
+    @Override
+    public ByteBuffer newId(ByteBuffer input, int length) {
+        checkLength(length);
+        byte[] digest = signer.sign(input);
+
+        byte[] id = new byte[length];
+        id[0] = shard;
+        System.arraycopy(digest, 0, id, 1, Math.min(length - 1, digest.length));
+        return ByteBuffer.wrap(id);
+    }
+
+    @Override
+    public int maxConnectionIdLength() {
+        return ID_LENGTH;
+    }
+
+    @Override
+    public boolean isIdempotent() {
+        return true;
+    }
+
+    private static void checkLength(int length) {
+        if (length < 1 || length > ID_LENGTH) {
+            throw new IllegalArgumentException("length must be between 1 and " + ID_LENGTH + ": " + length);
+        }
+    }
+}
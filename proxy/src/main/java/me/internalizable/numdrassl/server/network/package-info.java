@@ -2,10 +2,21 @@
  * Network utilities for the proxy server.
  *
  * <p>This package provides utilities for network-related operations such as
- * building formatted chat messages for player communication.</p>
+ * transport selection, QUIC address validation and building formatted chat messages for player communication.</p>
  *
  * <h2>Key Classes</h2>
  * <ul>
+ *   <li>{@link me.internalizable.numdrassl.server.network.NetworkTransport} - Selects the
+ *       native epoll transport (with {@code SO_REUSEPORT} multi-socket ingress) or NIO.</li>
+ *   <li>{@link me.internalizable.numdrassl.server.network.RetryTokenHandler} - Stateless
+ *       QUIC Retry tokens signed with rotating HMAC keys, required only under load.</li>
+ *   <li>{@link me.internalizable.numdrassl.server.network.HandshakeLoadMonitor} - Tracks
+ *       the handshake rate and half-open connections that trigger address validation.</li>
+ *   <li>{@link me.internalizable.numdrassl.server.network.ConnectionAdmission} - Per-IP and
+ *       per-subnet token buckets and handshake limits checked before a session exists.</li>
+ *   <li>{@link me.internalizable.numdrassl.server.network.ShardedConnectionIdGenerator} and
+ *       {@link me.internalizable.numdrassl.server.network.ConnectionSteering} - Connection IDs
+ *       that name their owning socket, and the handler that steers datagrams back to it.</li>
  *   <li>{@link me.internalizable.numdrassl.api.chat.ChatMessageBuilder} - Fluent builder
  *       for constructing Hytale {@code FormattedMessage} objects with colors and styling.
  *       Simplifies the verbose message construction API.</li>
@@ -10,6 +10,10 @@
  *       Manages QUIC server lifecycle, SSL/TLS, and coordinates all components.</li>
  *   <li>{@link me.internalizable.numdrassl.server.BackendConnector} - Handles outbound QUIC
  *       connections to backend Hytale servers with BBR congestion control.</li>
+ *   <li>{@link me.internalizable.numdrassl.server.BackendEndpointPool} - Shared UDP sockets,
+ *       one set per event loop, that multiplex all outbound backend QUIC connections.</li>
+ *   <li>{@link me.internalizable.numdrassl.server.BackendConnectionPool} - Pre-handshaken
+ *       backend connections that new sessions and server switches take instead of connecting.</li>
  * </ul>
  *
  * <h2>Subpackages</h2>
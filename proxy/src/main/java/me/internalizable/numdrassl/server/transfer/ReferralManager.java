@@ -131,19 +131,39 @@ public final class ReferralManager {
     }
 
     private void validateReferralData(UUID playerUuid, byte[] referralData, PendingReferral pending) {
-        if (referralData == null || referralData.length == 0) {
+        ReferralData data = ReferralData.parse(referralData);
+        if (data == null) {
             return;
         }
 
-        String data = new String(referralData, StandardCharsets.UTF_8);
-        if (!data.startsWith(REFERRAL_PREFIX)) {
-            return;
+        if (!data.backendName().equals(pending.targetBackend().getName())) {
+            LOGGER.warn("Referral data mismatch for {}: expected {}, got {}",
+                playerUuid, pending.targetBackend().getName(), data.backendName());
         }
+    }
 
-        String backendName = data.substring(REFERRAL_PREFIX.length());
-        if (!backendName.equals(pending.targetBackend().getName())) {
-            LOGGER.warn("Referral data mismatch for {}: expected {}, got {}",
-                playerUuid, pending.targetBackend().getName(), backendName);
+    /**
+     * Referral data as sent to and echoed back by the client.
+     *
+     * @param backendName the target backend name
+     */
+    record ReferralData(@Nonnull String backendName) {
+
+        /**
+         * Parses referral data, returning null if it is absent or not from this proxy.
+         */
+        @Nullable
+        static ReferralData parse(@Nullable byte[] referralData) {
+            if (referralData == null || referralData.length == 0) {
+                return null;
+            }
+
+            String data = new String(referralData, StandardCharsets.UTF_8);
+            if (!data.startsWith(REFERRAL_PREFIX)) {
+                return null;
+            }
+
+            return new ReferralData(data.substring(REFERRAL_PREFIX.length()));
         }
     }
 
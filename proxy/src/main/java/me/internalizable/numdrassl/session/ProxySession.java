@@ -7,17 +7,21 @@ import com.hypixel.hytale.protocol.packets.connection.Disconnect;
 import com.hypixel.hytale.protocol.packets.connection.DisconnectType;
 import com.hypixel.hytale.protocol.packets.interface_.ServerMessage;
 import io.netty.buffer.ByteBuf;
+import io.netty.channel.WriteBufferWaterMark;
 import io.netty.incubator.codec.quic.QuicChannel;
 import io.netty.incubator.codec.quic.QuicStreamChannel;
 import me.internalizable.numdrassl.api.chat.ChatMessageBuilder;
 import me.internalizable.numdrassl.api.player.Player;
 import me.internalizable.numdrassl.auth.CertificateExtractor;
 import me.internalizable.numdrassl.config.BackendServer;
+import me.internalizable.numdrassl.config.ProxyConfig;
 import me.internalizable.numdrassl.server.ProxyCore;
 import me.internalizable.numdrassl.server.network.ChatMessageConverter;
 import me.internalizable.numdrassl.session.auth.SessionAuthState;
 import me.internalizable.numdrassl.session.channel.PacketSender;
 import me.internalizable.numdrassl.session.channel.SessionChannels;
+import me.internalizable.numdrassl.session.channel.StreamBackpressure;
+import me.internalizable.numdrassl.session.channel.StreamWindowTuner;
 import me.internalizable.numdrassl.session.identity.PlayerIdentity;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -64,6 +68,8 @@ public final class ProxySession {
     private final SessionChannels channels;
     private final SessionAuthState authState;
     private final PacketSender packetSender;
+    private final StreamBackpressure backpressure;
+    private final StreamWindowTuner windowTuner;
 
     // Mutable state (thread-safe)
     private final AtomicReference<SessionState> state = new AtomicReference<>(SessionState.HANDSHAKING);
@@ -90,9 +96,32 @@ public final class ProxySession {
         this.clientAddress = extractAddress(clientChannel);
         this.channels = new SessionChannels(id, clientChannel);
         this.authState = new SessionAuthState();
-        this.packetSender = new PacketSender(id, channels);
+        this.packetSender = createPacketSender(proxyCore.getConfig());
+        this.backpressure = createBackpressure(proxyCore.getConfig());
+        this.windowTuner = createWindowTuner(proxyCore);
 
-        extractCertificate(clientChannel);
+        windowTuner.start(proxyCore.getConfig().getWindowTuneIntervalMillis());
+    }
+
+    private PacketSender createPacketSender(ProxyConfig config) {
+        return new PacketSender(id, channels,
+            config.getWriteBatchMaxBytes(),
+            config.getWriteBatchMaxMessages(),
+            config.getWriteBatchFlushDelayMicros());
+    }
+
+    private StreamBackpressure createBackpressure(ProxyConfig config) {
+        return new StreamBackpressure(id, channels,
+            new WriteBufferWaterMark(config.getClientWriteLowWaterMark(), config.getClientWriteHighWaterMark()),
+            new WriteBufferWaterMark(config.getBackendWriteLowWaterMark(), config.getBackendWriteHighWaterMark()));
+    }
+
+    private StreamWindowTuner createWindowTuner(ProxyCore proxyCore) {
+        ProxyConfig config = proxyCore.getConfig();
+        return new StreamWindowTuner(id, channels, proxyCore.getWindowBudget(),
+            new WriteBufferWaterMark(config.getClientWriteLowWaterMark(), config.getClientWriteHighWaterMark()),
+            new WriteBufferWaterMark(config.getBackendWriteLowWaterMark(), config.getBackendWriteHighWaterMark()),
+            config.getWindowMaxHighWaterMark());
     }
 
     private InetSocketAddress extractAddress(QuicChannel channel) {
@@ -103,8 +132,17 @@ public final class ProxySession {
         return new InetSocketAddress("0.0.0.0", 0);
     }
 
-    private void extractCertificate(QuicChannel channel) {
-        X509Certificate cert = CertificateExtractor.extractClientCertificate(channel);
+    /**
+     * Reads the client's TLS certificate into the auth state.
+     *
+     * <p>Must be called once the TLS handshake has completed; the session is created
+     * before that, when the peer certificate is not yet available.</p>
+     */
+    public void captureClientCertificate() {
+        if (authState.hasCertificate()) {
+            return;
+        }
+        X509Certificate cert = CertificateExtractor.extractClientCertificate(channels.clientChannel());
         if (cert != null) {
             String fingerprint = CertificateExtractor.computeCertificateFingerprint(cert);
             authState.setClientCertificate(cert, fingerprint);
@@ -240,6 +278,9 @@ public final class ProxySession {
     }
 
     public void setClientStream(@Nullable QuicStreamChannel stream) {
+        if (stream != null) {
+            backpressure.configureClientStream(stream);
+        }
         channels.setClientStream(stream);
     }
 
@@ -259,6 +300,21 @@ public final class ProxySession {
 
     public void setBackendStream(@Nullable QuicStreamChannel stream) {
         channels.setBackendStream(stream);
+        if (stream != null) {
+            backpressure.configureBackendStream(stream);
+        }
+    }
+
+    /**
+     * Queues a secondary client stream until the backend accepts the session.
+     */
+    public void addPendingClientStream(@Nonnull QuicStreamChannel stream) {
+        channels.addPendingClientStream(stream);
+    }
+
+    @Nullable
+    public QuicStreamChannel pollPendingClientStream() {
+        return channels.pollPendingClientStream();
     }
 
     // ==================== Auth State Delegation ====================
@@ -342,6 +398,79 @@ public final class ProxySession {
         }
     }
 
+    /**
+     * Sends one chunk of a large frame that is streamed to the client as it arrives.
+     */
+    public void sendChunkToClient(@Nonnull ByteBuf chunk, int frameSize, boolean last) {
+        packetSender.sendChunkToClient(chunk, frameSize, last);
+    }
+
+    /**
+     * Sends one chunk of a large frame that is streamed to the backend as it arrives.
+     */
+    public void sendChunkToBackend(@Nonnull ByteBuf chunk, int frameSize, boolean last) {
+        packetSender.sendChunkToBackend(chunk, frameSize, last);
+    }
+
+    /**
+     * Marks the start of a backend stream read; see {@link PacketSender#beginReadToClient()}.
+     */
+    public void beginReadToClient() {
+        packetSender.beginReadToClient();
+    }
+
+    /**
+     * Marks the start of a client stream read; see {@link PacketSender#beginReadToBackend()}.
+     */
+    public void beginReadToBackend() {
+        packetSender.beginReadToBackend();
+    }
+
+    /**
+     * Flushes writes batched for the client stream.
+     */
+    public void flushToClient() {
+        packetSender.flushToClient();
+    }
+
+    /**
+     * Flushes writes batched for the backend stream.
+     */
+    public void flushToBackend() {
+        packetSender.flushToBackend();
+    }
+
+    /**
+     * Pauses or resumes backend reads after the client stream's writability changed.
+     */
+    public void onClientWritabilityChanged() {
+        backpressure.clientWritabilityChanged();
+    }
+
+    /**
+     * Pauses or resumes client reads after the backend stream's writability changed.
+     */
+    public void onBackendWritabilityChanged() {
+        backpressure.backendWritabilityChanged();
+    }
+
+    /**
+     * Creates the backpressure state for one stream of a secondary stream pair.
+     *
+     * @param clientSide whether the stream is on the client connection
+     */
+    @Nonnull
+    public StreamBackpressure.PairedStream newPairedStreamBackpressure(boolean clientSide) {
+        return backpressure.pairedStream(clientSide);
+    }
+
+    /**
+     * Returns the number of bytes written to this session's streams but not yet flushed.
+     */
+    public long getPendingWriteBytes() {
+        return packetSender.getPendingBytes();
+    }
+
     /**
      * Alias for {@link #sendToBackend(Packet)}.
      */
@@ -444,6 +573,8 @@ public final class ProxySession {
         } else {
             channels.closeAll();
         }
+        backpressure.releaseBackend();
+        windowTuner.close();
 
         proxyCore.getSessionManager().removeSession(this);
     }
@@ -454,6 +585,8 @@ public final class ProxySession {
     public void close() {
         state.set(SessionState.DISCONNECTED);
         channels.closeAll();
+        backpressure.releaseBackend();
+        windowTuner.close();
     }
 
     /**
@@ -495,6 +628,7 @@ public final class ProxySession {
         setState(SessionState.TRANSFERRING);
         serverTransfer = true;
         channels.closeBackend();
+        backpressure.releaseBackend();
 
         Connect connectPacket = createTransferConnect();
         proxyCore.getBackendConnector().reconnect(this, newBackend, connectPacket);
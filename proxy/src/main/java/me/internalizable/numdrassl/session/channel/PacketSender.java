@@ -1,7 +1,9 @@
 package me.internalizable.numdrassl.session.channel;
 
 import com.hypixel.hytale.protocol.Packet;
+import com.hypixel.hytale.protocol.io.PacketIO;
 import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelFutureListener;
 import io.netty.incubator.codec.quic.QuicStreamChannel;
 import me.internalizable.numdrassl.profiling.ProxyMetrics;
 import org.slf4j.Logger;
@@ -16,6 +18,17 @@ import java.util.Objects;
  * <p>All send operations ensure they execute on the correct event loop thread,
  * preventing race conditions and ensuring proper Netty channel handling.</p>
  *
+ * <p>Writes are batched per stream by {@link WriteBatch} rather than flushed one by
+ * one. Packet handlers call {@link #flushToClient()} / {@link #flushToBackend()} from
+ * {@code channelReadComplete} so a burst of forwarded frames leaves in one flush;
+ * size and time limits bound how long anything else stays queued.</p>
+ *
+ * <p>Chunks of large frames that are streamed as they arrive go through
+ * {@link #sendChunkToClient} / {@link #sendChunkToBackend}, which keep other writes
+ * from interleaving with the frame. A frame is pinned to the stream its first chunk
+ * went to; if that stream is replaced mid-frame, for example by a server switch, the
+ * rest of the frame is dropped and the half-written stream is closed.</p>
+ *
  * <p>ByteBuf resources are properly released if sending fails.</p>
  */
 public final class PacketSender {
@@ -24,10 +37,39 @@ public final class PacketSender {
 
     private final long sessionId;
     private final SessionChannels channels;
+    private final int maxPendingBytes;
+    private final int maxPendingMessages;
+    private final long flushDelayMicros;
+
+    private final ChannelFutureListener clientWriteListener;
+    private final ChannelFutureListener backendWriteListener;
 
-    public PacketSender(long sessionId, @Nonnull SessionChannels channels) {
+    // Chunk state passed through to the batch for each write
+    private static final int FRAME = 0;
+    private static final int PARTIAL_CHUNK = 1;
+    private static final int FINAL_CHUNK = 2;
+
+    // Stream the chunked frame in progress started on, per direction
+    private volatile QuicStreamChannel clientFrameStream;
+    private volatile QuicStreamChannel backendFrameStream;
+
+    public PacketSender(long sessionId, @Nonnull SessionChannels channels,
+                        int maxPendingBytes, int maxPendingMessages, long flushDelayMicros) {
         this.sessionId = sessionId;
         this.channels = Objects.requireNonNull(channels, "channels");
+        this.maxPendingBytes = maxPendingBytes;
+        this.maxPendingMessages = maxPendingMessages;
+        this.flushDelayMicros = flushDelayMicros;
+        this.clientWriteListener = createWriteListener("client");
+        this.backendWriteListener = createWriteListener("backend");
+    }
+
+    private ChannelFutureListener createWriteListener(String target) {
+        return future -> {
+            if (!future.isSuccess()) {
+                LOGGER.warn("Session {}: Failed to send to {}", sessionId, target, future.cause());
+            }
+        };
     }
 
     // ==================== Send to Client ====================
@@ -42,7 +84,7 @@ public final class PacketSender {
     public boolean sendToClient(@Nonnull Packet packet) {
         Objects.requireNonNull(packet, "packet");
         QuicStreamChannel stream = channels.clientStream();
-        boolean result = sendToStream(stream, packet, "client");
+        boolean result = sendToStream(stream, packet, FRAME, "client", clientWriteListener);
         if (result) {
             ProxyMetrics.getInstance().recordPacketToClient(packet.getClass().getSimpleName(), 0);
         }
@@ -60,13 +102,43 @@ public final class PacketSender {
         Objects.requireNonNull(data, "data");
         QuicStreamChannel stream = channels.clientStream();
         int bytes = data.readableBytes();
-        boolean result = sendToStream(stream, data, "client");
+        boolean result = sendToStream(stream, data, FRAME, "client", clientWriteListener);
         if (result) {
             ProxyMetrics.getInstance().recordPacketToClient("RawPacket", bytes);
         }
         return result;
     }
 
+    /**
+     * Sends one chunk of a large frame to the connected client. Other writes to the
+     * client are held back until the chunk completing the frame has been sent.
+     * Thread-safe: executes on the client stream's event loop.
+     *
+     * @param chunk the chunk to send (will be released on failure)
+     * @param frameSize the size of the whole frame on its first chunk, 0 on the rest
+     * @param last whether this chunk completes the frame
+     * @return true if the chunk was queued for sending
+     */
+    public boolean sendChunkToClient(@Nonnull ByteBuf chunk, int frameSize, boolean last) {
+        Objects.requireNonNull(chunk, "chunk");
+        if (frameSize > 0) {
+            clientFrameStream = channels.clientStream();
+        }
+        QuicStreamChannel stream = clientFrameStream;
+        if (last) {
+            clientFrameStream = null;
+        }
+        if (stream != channels.clientStream()) {
+            abandonFrame(stream, chunk, "client");
+            return false;
+        }
+        boolean result = sendToStream(stream, chunk, last ? FINAL_CHUNK : PARTIAL_CHUNK, "client", clientWriteListener);
+        if (result && frameSize > 0) {
+            ProxyMetrics.getInstance().recordPacketToClient("RawPacket", frameSize);
+        }
+        return result;
+    }
+
     // ==================== Send to Backend ====================
 
     /**
@@ -79,7 +151,7 @@ public final class PacketSender {
     public boolean sendToBackend(@Nonnull Packet packet) {
         Objects.requireNonNull(packet, "packet");
         QuicStreamChannel stream = channels.backendStream();
-        boolean result = sendToStream(stream, packet, "backend");
+        boolean result = sendToStream(stream, packet, FRAME, "backend", backendWriteListener);
         if (result) {
             ProxyMetrics.getInstance().recordPacketToBackend(packet.getClass().getSimpleName(), 0);
         }
@@ -97,16 +169,114 @@ public final class PacketSender {
         Objects.requireNonNull(data, "data");
         QuicStreamChannel stream = channels.backendStream();
         int bytes = data.readableBytes();
-        boolean result = sendToStream(stream, data, "backend");
+        boolean result = sendToStream(stream, data, FRAME, "backend", backendWriteListener);
         if (result) {
             ProxyMetrics.getInstance().recordPacketToBackend("RawPacket", bytes);
         }
         return result;
     }
 
+    /**
+     * Sends one chunk of a large frame to the backend server. Other writes to the
+     * backend are held back until the chunk completing the frame has been sent.
+     * Thread-safe: executes on the backend stream's event loop.
+     *
+     * @param chunk the chunk to send (will be released on failure)
+     * @param frameSize the size of the whole frame on its first chunk, 0 on the rest
+     * @param last whether this chunk completes the frame
+     * @return true if the chunk was queued for sending
+     */
+    public boolean sendChunkToBackend(@Nonnull ByteBuf chunk, int frameSize, boolean last) {
+        Objects.requireNonNull(chunk, "chunk");
+        if (frameSize > 0) {
+            backendFrameStream = channels.backendStream();
+        }
+        QuicStreamChannel stream = backendFrameStream;
+        if (last) {
+            backendFrameStream = null;
+        }
+        if (stream != channels.backendStream()) {
+            abandonFrame(stream, chunk, "backend");
+            return false;
+        }
+        boolean result = sendToStream(stream, chunk, last ? FINAL_CHUNK : PARTIAL_CHUNK, "backend", backendWriteListener);
+        if (result && frameSize > 0) {
+            ProxyMetrics.getInstance().recordPacketToBackend("RawPacket", frameSize);
+        }
+        return result;
+    }
+
+    // ==================== Flushing ====================
+
+    /**
+     * Marks the start of a client stream read. Writes to the backend until
+     * {@link #flushToBackend()} leave with that flush instead of arming the delay timer.
+     */
+    public void beginReadToBackend() {
+        beginReadCycle(channels.backendStream());
+    }
+
+    /**
+     * Marks the start of a backend stream read. Writes to the client until
+     * {@link #flushToClient()} leave with that flush instead of arming the delay timer.
+     */
+    public void beginReadToClient() {
+        beginReadCycle(channels.clientStream());
+    }
+
+    /**
+     * Flushes writes batched for the client stream.
+     * Called when the backend stream finishes a read.
+     */
+    public void flushToClient() {
+        flushStream(channels.clientStream());
+    }
+
+    /**
+     * Flushes writes batched for the backend stream.
+     * Called when the client stream finishes a read.
+     */
+    public void flushToBackend() {
+        flushStream(channels.backendStream());
+    }
+
+    /**
+     * Returns the number of bytes written to this session's streams but not yet flushed.
+     */
+    public long getPendingBytes() {
+        return WriteBatch.pendingBytes(channels.clientStream()) + WriteBatch.pendingBytes(channels.backendStream());
+    }
+
+    private void flushStream(QuicStreamChannel stream) {
+        if (stream == null || !stream.isActive()) {
+            return;
+        }
+
+        // Queued behind any writes submitted from this thread, so it flushes them too
+        if (stream.eventLoop().inEventLoop()) {
+            batchFor(stream).endReadCycle();
+        } else {
+            stream.eventLoop().execute(() -> batchFor(stream).endReadCycle());
+        }
+    }
+
+    private void beginReadCycle(QuicStreamChannel stream) {
+        if (stream == null || !stream.isActive()) {
+            return;
+        }
+
+        // Queued ahead of the writes this read submits
+        if (stream.eventLoop().inEventLoop()) {
+            batchFor(stream).beginReadCycle();
+        } else {
+            stream.eventLoop().execute(() -> batchFor(stream).beginReadCycle());
+        }
+    }
+
     // ==================== Internal ====================
 
-    private boolean sendToStream(QuicStreamChannel stream, Object message, String target) {
+    private boolean sendToStream(QuicStreamChannel stream, Object message, int chunkState, String target,
+                                 ChannelFutureListener listener) {
         if (stream == null || !stream.isActive()) {
             LOGGER.warn("Session {}: Cannot send to {} - stream not active", sessionId, target);
             releaseIfByteBuf(message);
@@ -114,14 +284,14 @@ public final class PacketSender {
         }
 
         if (stream.eventLoop().inEventLoop()) {
-            doWrite(stream, message, target);
+            doWrite(stream, message, chunkState, listener);
         } else {
 
             //bytebuf released by SimpleChannelInbound so no need to track
 
             stream.eventLoop().execute(() -> {
                 if (stream.isActive()) {
-                    doWrite(stream, message, target);
+                    doWrite(stream, message, chunkState, listener);
                 } else {
                     LOGGER.warn("Session {}: Stream became inactive before send to {}", sessionId, target);
                     releaseIfByteBuf(message);
@@ -131,12 +301,31 @@ public final class PacketSender {
         return true;
     }
 
-    private void doWrite(QuicStreamChannel stream, Object message, String target) {
-        stream.writeAndFlush(message).addListener(future -> {
-            if (!future.isSuccess()) {
-                LOGGER.warn("Session {}: Failed to send to {}", sessionId, target, future.cause());
-            }
-        });
+    private void doWrite(QuicStreamChannel stream, Object message, int chunkState, ChannelFutureListener listener) {
+        if (chunkState != FRAME) {
+            batchFor(stream).writeChunk(message, chunkState == FINAL_CHUNK, listener);
+            return;
+        }
+        int bytes = message instanceof ByteBuf buf
+            ? buf.readableBytes()
+            : message instanceof Packet packet ? PacketIO.framedSizeHint(packet) : 0;
+        batchFor(stream).write(message, bytes, listener);
+    }
+
+    /**
+     * Drops a chunk whose frame started on a stream that has since been replaced. The
+     * old stream holds a partial frame it can never complete, so it is closed.
+     */
+    private void abandonFrame(QuicStreamChannel stream, ByteBuf chunk, String target) {
+        chunk.release();
+        if (stream != null && stream.isActive()) {
+            LOGGER.warn("Session {}: {} stream replaced mid-frame, closing it", sessionId, target);
+            stream.close();
+        }
+    }
+
+    private WriteBatch batchFor(QuicStreamChannel stream) {
+        return WriteBatch.of(stream, maxPendingBytes, maxPendingMessages, flushDelayMicros);
     }
 
     private void releaseIfByteBuf(Object obj) {
@@ -145,4 +334,3 @@ public final class PacketSender {
         }
     }
 }
-
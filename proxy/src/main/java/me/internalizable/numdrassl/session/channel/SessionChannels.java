@@ -7,6 +7,8 @@ import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
@@ -18,6 +20,10 @@ import java.util.concurrent.atomic.AtomicReference;
  *   <li><b>Backend side</b>: The upstream connection to the Hytale server</li>
  * </ul>
  *
+ * <p>Only the primary stream of each side is held here. Secondary streams are paired
+ * with each other directly; client streams opened before the backend accepted the
+ * session wait in a queue until they can be paired.</p>
+ *
  * <p>All operations are thread-safe via atomic references.</p>
  */
 public final class SessionChannels {
@@ -30,6 +36,7 @@ public final class SessionChannels {
     private final AtomicReference<QuicStreamChannel> clientStream = new AtomicReference<>();
     private final AtomicReference<QuicChannel> backendChannel = new AtomicReference<>();
     private final AtomicReference<QuicStreamChannel> backendStream = new AtomicReference<>();
+    private final Queue<QuicStreamChannel> pendingClientStreams = new ConcurrentLinkedQueue<>();
 
     public SessionChannels(long sessionId, @Nonnull QuicChannel clientChannel) {
         this.sessionId = sessionId;
@@ -61,6 +68,18 @@ public final class SessionChannels {
         return stream != null && stream.isActive();
     }
 
+    /**
+     * Queues a secondary client stream until a backend stream can be opened for it.
+     */
+    public void addPendingClientStream(@Nonnull QuicStreamChannel stream) {
+        pendingClientStreams.add(stream);
+    }
+
+    @Nullable
+    public QuicStreamChannel pollPendingClientStream() {
+        return pendingClientStreams.poll();
+    }
+
     // ==================== Backend Side ====================
 
     @Nullable
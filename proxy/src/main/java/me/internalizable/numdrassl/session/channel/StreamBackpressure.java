@@ -0,0 +1,229 @@
+package me.internalizable.numdrassl.session.channel;
+
+import io.netty.channel.WriteBufferWaterMark;
+import io.netty.incubator.codec.quic.QuicStreamChannel;
+import me.internalizable.numdrassl.profiling.ProxyMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import java.util.Objects;
+
+/**
+ * Pauses reading from one side of a session while the other side cannot keep up.
+ *
+ * <p>Each stream gets a write buffer water mark for its direction. When a stream's
+ * outbound buffer passes the high mark, the stream becomes unwritable and auto-read is
+ * turned off on the paired stream. No more data is then pulled in for the slow peer,
+ * and QUIC flow control pushes back on the sender. Once the buffer drains below the
+ * low mark, reading resumes. Pause durations are recorded in {@link ProxyMetrics}.</p>
+ *
+ * <p>Secondary stream pairs get the same treatment through {@link PairedStream}, one
+ * per stream of a pair, so their pauses show up in the same metrics.</p>
+ *
+ * <p>The two streams may live on different event loops. Transitions are rare, so
+ * methods synchronize on this instance.</p>
+ */
+public final class StreamBackpressure {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StreamBackpressure.class);
+
+    private final long sessionId;
+    private final SessionChannels channels;
+    private final WriteBufferWaterMark toClientWaterMark;
+    private final WriteBufferWaterMark toBackendWaterMark;
+
+    // Nano time reads were paused on each stream, 0 while reading
+    private long backendPausedSince;
+    private long clientPausedSince;
+
+    public StreamBackpressure(long sessionId, @Nonnull SessionChannels channels,
+                              @Nonnull WriteBufferWaterMark toClientWaterMark,
+                              @Nonnull WriteBufferWaterMark toBackendWaterMark) {
+        this.sessionId = sessionId;
+        this.channels = Objects.requireNonNull(channels, "channels");
+        this.toClientWaterMark = Objects.requireNonNull(toClientWaterMark, "toClientWaterMark");
+        this.toBackendWaterMark = Objects.requireNonNull(toBackendWaterMark, "toBackendWaterMark");
+    }
+
+    // ==================== Stream Setup ====================
+
+    /**
+     * Applies the to-client water mark to a new client stream.
+     */
+    public void configureClientStream(@Nonnull QuicStreamChannel stream) {
+        stream.config().setWriteBufferWaterMark(toClientWaterMark);
+    }
+
+    /**
+     * Applies the to-backend water mark to a new backend stream. If the client is
+     * currently unwritable, the new stream starts paused.
+     */
+    public synchronized void configureBackendStream(@Nonnull QuicStreamChannel stream) {
+        stream.config().setWriteBufferWaterMark(toBackendWaterMark);
+
+        // A pause on the previous backend stream no longer applies
+        if (backendPausedSince != 0) {
+            ProxyMetrics.getInstance().recordToClientResumed(System.nanoTime() - backendPausedSince);
+            backendPausedSince = 0;
+        }
+
+        QuicStreamChannel client = channels.clientStream();
+        if (client != null && !client.isWritable()) {
+            pauseBackend(stream);
+        }
+    }
+
+    // ==================== Writability ====================
+
+    /**
+     * Called when the client stream's writability changes.
+     */
+    public synchronized void clientWritabilityChanged() {
+        QuicStreamChannel client = channels.clientStream();
+        QuicStreamChannel backend = channels.backendStream();
+        if (client == null || backend == null) {
+            return;
+        }
+
+        if (!client.isWritable()) {
+            pauseBackend(backend);
+        } else if (backendPausedSince != 0) {
+            backend.config().setAutoRead(true);
+            ProxyMetrics.getInstance().recordToClientResumed(System.nanoTime() - backendPausedSince);
+            backendPausedSince = 0;
+        }
+    }
+
+    /**
+     * Called when the backend stream's writability changes.
+     */
+    public synchronized void backendWritabilityChanged() {
+        QuicStreamChannel backend = channels.backendStream();
+        QuicStreamChannel client = channels.clientStream();
+        if (backend == null || client == null) {
+            return;
+        }
+
+        if (!backend.isWritable()) {
+            if (clientPausedSince == 0) {
+                client.config().setAutoRead(false);
+                clientPausedSince = System.nanoTime();
+                ProxyMetrics.getInstance().recordToBackendPaused();
+                LOGGER.debug("Session {}: Backend not writable, pausing client reads", sessionId);
+            }
+        } else {
+            resumeClient(client);
+        }
+    }
+
+    private void pauseBackend(QuicStreamChannel backend) {
+        if (backendPausedSince == 0) {
+            backend.config().setAutoRead(false);
+            backendPausedSince = System.nanoTime();
+            ProxyMetrics.getInstance().recordToClientPaused();
+            LOGGER.debug("Session {}: Client not writable, pausing backend reads", sessionId);
+        }
+    }
+
+    private void resumeClient(QuicStreamChannel client) {
+        if (clientPausedSince != 0) {
+            if (client != null) {
+                client.config().setAutoRead(true);
+            }
+            ProxyMetrics.getInstance().recordToBackendResumed(System.nanoTime() - clientPausedSince);
+            clientPausedSince = 0;
+        }
+    }
+
+    // ==================== Secondary Streams ====================
+
+    /**
+     * Creates the backpressure state for one stream of a secondary pair.
+     *
+     * @param clientSide whether the stream is on the client connection
+     */
+    @Nonnull
+    public PairedStream pairedStream(boolean clientSide) {
+        return new PairedStream(clientSide);
+    }
+
+    /**
+     * Pauses reads on a secondary stream's peer while the stream is unwritable.
+     */
+    public final class PairedStream {
+
+        private final boolean clientSide;
+        private long pausedSince;
+
+        private PairedStream(boolean clientSide) {
+            this.clientSide = clientSide;
+        }
+
+        /**
+         * Applies the water mark for the stream's direction.
+         */
+        public void configure(@Nonnull QuicStreamChannel stream) {
+            stream.config().setWriteBufferWaterMark(clientSide ? toClientWaterMark : toBackendWaterMark);
+        }
+
+        /**
+         * Called when the stream's writability changes.
+         *
+         * @param stream the stream whose writability changed
+         * @param peer   the stream it is paired with, whose reads are paused or resumed
+         */
+        public synchronized void writabilityChanged(@Nonnull QuicStreamChannel stream,
+                                                    @Nonnull QuicStreamChannel peer) {
+            if (!stream.isWritable()) {
+                if (pausedSince == 0) {
+                    peer.config().setAutoRead(false);
+                    pausedSince = System.nanoTime();
+                    if (clientSide) {
+                        ProxyMetrics.getInstance().recordToClientPaused();
+                    } else {
+                        ProxyMetrics.getInstance().recordToBackendPaused();
+                    }
+                    LOGGER.debug("Session {}: Paired {} stream not writable, pausing its peer",
+                        sessionId, clientSide ? "client" : "backend");
+                }
+            } else if (pausedSince != 0) {
+                peer.config().setAutoRead(true);
+                recordResumed();
+            }
+        }
+
+        /**
+         * Ends any pause, e.g. when the pair is closed.
+         */
+        public synchronized void release() {
+            if (pausedSince != 0) {
+                recordResumed();
+            }
+        }
+
+        private void recordResumed() {
+            long pausedNanos = System.nanoTime() - pausedSince;
+            pausedSince = 0;
+            if (clientSide) {
+                ProxyMetrics.getInstance().recordToClientResumed(pausedNanos);
+            } else {
+                ProxyMetrics.getInstance().recordToBackendResumed(pausedNanos);
+            }
+        }
+    }
+
+    // ==================== Lifecycle ====================
+
+    /**
+     * Clears any pause tied to the backend stream, e.g. when it is closed for a transfer.
+     * Client reads resume since there is no longer a slow backend to wait for.
+     */
+    public synchronized void releaseBackend() {
+        resumeClient(channels.clientStream());
+        if (backendPausedSince != 0) {
+            ProxyMetrics.getInstance().recordToClientResumed(System.nanoTime() - backendPausedSince);
+            backendPausedSince = 0;
+        }
+    }
+}
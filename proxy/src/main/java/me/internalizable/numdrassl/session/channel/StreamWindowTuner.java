@@ -0,0 +1,158 @@
+package me.internalizable.numdrassl.session.channel;
+
+import io.netty.channel.EventLoop;
+import io.netty.channel.WriteBufferWaterMark;
+import io.netty.incubator.codec.quic.QuicChannel;
+import io.netty.incubator.codec.quic.QuicConnectionPathStats;
+import io.netty.incubator.codec.quic.QuicStreamChannel;
+import io.netty.util.concurrent.ScheduledFuture;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import java.util.Objects;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sizes the stream buffers of a session to each connection's bandwidth-delay product.
+ *
+ * <p>Streams start with the configured water marks. At every interval the tuner reads
+ * the RTT and delivery rate of the client and backend connections and sets each
+ * stream's high water mark to twice the measured bandwidth-delay product, never below
+ * the configured mark and never above the per-stream maximum. Growth beyond the
+ * configured mark is reserved from the shared {@link WindowBudget} and handed back as
+ * the link slows down or the session ends.</p>
+ *
+ * <p>The transport's own receive windows are grown by the QUIC stack; this tunes how
+ * much the proxy buffers for a peer before pausing the other side.</p>
+ */
+public final class StreamWindowTuner {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StreamWindowTuner.class);
+
+    private final long sessionId;
+    private final SessionChannels channels;
+    private final WindowBudget budget;
+    private final Side client;
+    private final Side backend;
+
+    private ScheduledFuture<?> task;
+    // Set on the client connection's event loop once reservations are handed back
+    private boolean closed;
+
+    public StreamWindowTuner(long sessionId, @Nonnull SessionChannels channels, @Nonnull WindowBudget budget,
+                             @Nonnull WriteBufferWaterMark toClientWaterMark,
+                             @Nonnull WriteBufferWaterMark toBackendWaterMark,
+                             int maxHighWaterMark) {
+        this.sessionId = sessionId;
+        this.channels = Objects.requireNonNull(channels, "channels");
+        this.budget = Objects.requireNonNull(budget, "budget");
+        this.client = new Side(toClientWaterMark, maxHighWaterMark);
+        this.backend = new Side(toBackendWaterMark, maxHighWaterMark);
+    }
+
+    /**
+     * Starts tuning on the client connection's event loop.
+     */
+    public void start(long intervalMillis) {
+        if (intervalMillis <= 0) {
+            return;
+        }
+        QuicChannel clientChannel = channels.clientChannel();
+        task = clientChannel.eventLoop().scheduleAtFixedRate(this::tune,
+            intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops tuning and returns everything reserved from the budget.
+     */
+    public void close() {
+        ScheduledFuture<?> current = task;
+        if (current != null) {
+            current.cancel(false);
+        }
+        EventLoop loop = channels.clientChannel().eventLoop();
+        if (loop.inEventLoop()) {
+            releaseAll();
+        } else {
+            try {
+                loop.execute(this::releaseAll);
+            } catch (RejectedExecutionException e) {
+                // Loop already shut down; nothing else touches the reservations now
+                releaseAll();
+            }
+        }
+    }
+
+    private void releaseAll() {
+        closed = true;
+        budget.release(client.reserved);
+        budget.release(backend.reserved);
+        client.reserved = 0;
+        backend.reserved = 0;
+    }
+
+    private void tune() {
+        if (!channels.clientChannel().isActive()) {
+            close();
+            return;
+        }
+        client.sample(channels.clientChannel(), channels.clientStream());
+        backend.sample(channels.backendChannel(), channels.backendStream());
+    }
+
+    /**
+     * Tuning state for the streams written towards one peer.
+     * Only touched on the client connection's event loop.
+     */
+    private final class Side {
+
+        private final WriteBufferWaterMark base;
+        private final int maxHigh;
+        private long reserved;
+
+        Side(WriteBufferWaterMark base, int maxHigh) {
+            this.base = base;
+            this.maxHigh = Math.max(maxHigh, base.high());
+        }
+
+        void sample(QuicChannel connection, QuicStreamChannel stream) {
+            if (connection == null || stream == null || !connection.isActive()) {
+                return;
+            }
+            connection.collectPathStats(0).addListener(future -> {
+                if (future.isSuccess()) {
+                    QuicConnectionPathStats stats = (QuicConnectionPathStats) future.getNow();
+                    channels.clientChannel().eventLoop().execute(() -> apply(stream, stats));
+                }
+            });
+        }
+
+        private void apply(QuicStreamChannel stream, QuicConnectionPathStats stats) {
+            if (closed || !stream.isActive()) {
+                return;
+            }
+            long rttMicros = stats.rtt().toNanos() / 1000;
+            long bdp = stats.deliveryRate() * rttMicros / TimeUnit.SECONDS.toMicros(1);
+            long target = Math.min(Math.max(2 * bdp, base.high()), maxHigh);
+            long wanted = target - base.high();
+
+            if (wanted > reserved) {
+                reserved += budget.reserve(wanted - reserved);
+            } else if (wanted < reserved) {
+                budget.release(reserved - wanted);
+                reserved = wanted;
+            }
+
+            int high = (int) (base.high() + reserved);
+            int low = Math.max(base.low(), high / 2);
+            WriteBufferWaterMark current = stream.config().getWriteBufferWaterMark();
+            if (current.high() != high || current.low() != low) {
+                stream.config().setWriteBufferWaterMark(new WriteBufferWaterMark(low, high));
+                LOGGER.debug("Session {}: Stream {} water mark {}/{} (rtt={}us, rate={}B/s)",
+                    sessionId, stream.streamId(), low, high, rttMicros, stats.deliveryRate());
+            }
+        }
+    }
+}
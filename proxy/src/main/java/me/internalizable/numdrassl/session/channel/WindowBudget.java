@@ -0,0 +1,52 @@
+package me.internalizable.numdrassl.session.channel;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Global memory budget for stream buffering grown beyond the configured water marks.
+ *
+ * <p>Shared by every session's {@link StreamWindowTuner}. Reservations are granted
+ * up to whatever the budget has left, so a crowd of fast connections cannot grow
+ * the proxy's buffered memory without bound.</p>
+ */
+public final class WindowBudget {
+
+    private final long limit;
+    private final AtomicLong used = new AtomicLong();
+
+    public WindowBudget(long limit) {
+        this.limit = Math.max(0, limit);
+    }
+
+    /**
+     * Reserves up to {@code bytes} from the budget.
+     *
+     * @return the number of bytes actually reserved, possibly 0
+     */
+    long reserve(long bytes) {
+        while (true) {
+            long current = used.get();
+            long granted = Math.min(bytes, limit - current);
+            if (granted <= 0) {
+                return 0;
+            }
+            if (used.compareAndSet(current, current + granted)) {
+                return granted;
+            }
+        }
+    }
+
+    void release(long bytes) {
+        if (bytes > 0) {
+            used.addAndGet(-bytes);
+        }
+    }
+
+    public long used() {
+        return used.get();
+    }
+
+    public long limit() {
+        return limit;
+    }
+}
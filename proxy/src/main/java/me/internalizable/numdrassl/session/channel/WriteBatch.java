@@ -0,0 +1,194 @@
+package me.internalizable.numdrassl.session.channel;
+
+import io.netty.channel.ChannelFutureListener;
+import io.netty.incubator.codec.quic.QuicStreamChannel;
+import io.netty.util.AttributeKey;
+import io.netty.util.ReferenceCountUtil;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayDeque;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coalesces writes to a single stream into as few flushes as possible.
+ *
+ * <p>Writes are queued without flushing. The batch is flushed when the paired
+ * stream finishes a read ({@code channelReadComplete}), when the pending size or
+ * message count reaches its limit, or when the flush delay elapses. The delay timer
+ * is only armed for writes made outside a read cycle of the paired stream, since
+ * the end of that read flushes them anyway.</p>
+ *
+ * <p>Large frames may be streamed in chunks with {@link #writeChunk}. Between the
+ * first and last chunk of a frame, other writes are held back so they cannot land
+ * inside the frame, and are written once the frame is complete.</p>
+ *
+ * <p>One batch is attached to each stream and must only be used from that
+ * stream's event loop. {@link #pendingBytes()} may be read from any thread.</p>
+ */
+final class WriteBatch {
+
+    private static final AttributeKey<WriteBatch> KEY = AttributeKey.valueOf("numdrassl.writeBatch");
+
+    private final QuicStreamChannel stream;
+    private final int maxPendingBytes;
+    private final int maxPendingMessages;
+    private final long flushDelayMicros;
+    private final Runnable flushTask = this::flushScheduled;
+
+    private volatile long pendingBytes;
+    private int pendingMessages;
+    private boolean flushScheduled;
+    private boolean inReadCycle;
+
+    // Writes held back while a chunked frame is in progress
+    private final ArrayDeque<DeferredWrite> deferred = new ArrayDeque<>();
+    private volatile long deferredBytes;
+    private boolean inChunkedFrame;
+
+    private WriteBatch(QuicStreamChannel stream, int maxPendingBytes, int maxPendingMessages, long flushDelayMicros) {
+        this.stream = stream;
+        this.maxPendingBytes = maxPendingBytes;
+        this.maxPendingMessages = maxPendingMessages;
+        this.flushDelayMicros = flushDelayMicros;
+    }
+
+    /**
+     * Gets the batch attached to a stream, creating it on first use.
+     */
+    @Nonnull
+    static WriteBatch of(@Nonnull QuicStreamChannel stream, int maxPendingBytes,
+                         int maxPendingMessages, long flushDelayMicros) {
+        Objects.requireNonNull(stream, "stream");
+        WriteBatch batch = stream.attr(KEY).get();
+        if (batch == null) {
+            WriteBatch created = new WriteBatch(stream, maxPendingBytes, maxPendingMessages, flushDelayMicros);
+            WriteBatch existing = stream.attr(KEY).setIfAbsent(created);
+            if (existing != null) {
+                batch = existing;
+            } else {
+                batch = created;
+                stream.closeFuture().addListener(future -> stream.eventLoop().execute(created::releaseDeferred));
+            }
+        }
+        return batch;
+    }
+
+    /**
+     * Returns the number of bytes pending on a stream, or 0 if nothing was batched.
+     */
+    static long pendingBytes(QuicStreamChannel stream) {
+        if (stream == null) {
+            return 0;
+        }
+        WriteBatch batch = stream.attr(KEY).get();
+        return batch != null ? batch.pendingBytes() : 0;
+    }
+
+    long pendingBytes() {
+        return pendingBytes + deferredBytes;
+    }
+
+    /**
+     * Queues a message without flushing. Must be called on the stream's event loop.
+     *
+     * @param message the message to write
+     * @param bytes the payload size used for the size threshold, 0 if unknown
+     * @param listener listener notified when the write completes
+     */
+    void write(Object message, int bytes, ChannelFutureListener listener) {
+        if (inChunkedFrame) {
+            deferred.add(new DeferredWrite(message, bytes, listener));
+            deferredBytes += bytes;
+            return;
+        }
+        enqueue(message, bytes, listener);
+    }
+
+    /**
+     * Writes one chunk of a frame that is streamed as it arrives. The chunk is
+     * flushed immediately, since the rest of the frame may take a while to arrive.
+     * Must be called on the stream's event loop.
+     *
+     * @param chunk the chunk, starting with the frame header if it is the first
+     * @param last whether this chunk completes the frame
+     * @param listener listener notified when the write completes
+     */
+    void writeChunk(Object chunk, boolean last, ChannelFutureListener listener) {
+        inChunkedFrame = !last;
+        stream.write(chunk).addListener(listener);
+        pendingMessages++;
+        flush();
+
+        if (last) {
+            DeferredWrite write;
+            while ((write = deferred.poll()) != null) {
+                deferredBytes -= write.bytes();
+                enqueue(write.message(), write.bytes(), write.listener());
+            }
+        }
+    }
+
+    private void enqueue(Object message, int bytes, ChannelFutureListener listener) {
+        stream.write(message).addListener(listener);
+        pendingBytes += bytes;
+        pendingMessages++;
+
+        if (pendingBytes >= maxPendingBytes || pendingMessages >= maxPendingMessages) {
+            flush();
+        } else if (!flushScheduled && !inReadCycle) {
+            flushScheduled = true;
+            if (flushDelayMicros <= 0) {
+                stream.eventLoop().execute(flushTask);
+            } else {
+                stream.eventLoop().schedule(flushTask, flushDelayMicros, TimeUnit.MICROSECONDS);
+            }
+        }
+    }
+
+    /**
+     * Flushes all pending writes. Must be called on the stream's event loop.
+     */
+    void flush() {
+        if (pendingMessages == 0) {
+            return;
+        }
+        pendingBytes = 0;
+        pendingMessages = 0;
+        stream.flush();
+    }
+
+    /**
+     * Marks the start of a read on the paired stream. Writes until
+     * {@link #endReadCycle()} are flushed by it rather than by the delay timer.
+     * Must be called on the stream's event loop.
+     */
+    void beginReadCycle() {
+        inReadCycle = true;
+    }
+
+    /**
+     * Ends a read cycle of the paired stream and flushes what it wrote.
+     * Must be called on the stream's event loop.
+     */
+    void endReadCycle() {
+        inReadCycle = false;
+        flush();
+    }
+
+    private void flushScheduled() {
+        flushScheduled = false;
+        flush();
+    }
+
+    private void releaseDeferred() {
+        DeferredWrite write;
+        while ((write = deferred.poll()) != null) {
+            ReferenceCountUtil.release(write.message());
+        }
+        deferredBytes = 0;
+    }
+
+    private record DeferredWrite(Object message, int bytes, ChannelFutureListener listener) {
+    }
+}
@@ -12,6 +12,14 @@
  *   <li>{@link me.internalizable.numdrassl.session.channel.PacketSender} - Handles
  *       thread-safe packet sending by ensuring writes execute on the correct Netty
  *       event loop thread. Properly releases ByteBuf resources on failure.</li>
+ *   <li>{@code WriteBatch} - Per-stream write coalescing; forwarded writes are
+ *       flushed once per read burst or when size/time limits are reached.</li>
+ *   <li>{@link me.internalizable.numdrassl.session.channel.StreamBackpressure} - Pauses
+ *       reads on one stream while the paired stream is above its write water mark.</li>
+ *   <li>{@link me.internalizable.numdrassl.session.channel.StreamWindowTuner} - Resizes
+ *       stream water marks to each connection's measured bandwidth-delay product,
+ *       drawing growth from the shared
+ *       {@link me.internalizable.numdrassl.session.channel.WindowBudget}.</li>
  * </ul>
  *
  * <h2>Channel Architecture</h2>
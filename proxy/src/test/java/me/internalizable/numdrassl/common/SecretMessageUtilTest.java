@@ -0,0 +1,155 @@
+package me.internalizable.numdrassl.common;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class SecretMessageUtilTest {
+
+    private static final byte[] SECRET = "test-secret-0123456789".getBytes(StandardCharsets.UTF_8);
+    private static final UUID PLAYER = UUID.fromString("6f9a1c2e-4b3d-4e5f-8a7b-1c2d3e4f5a6b");
+    private static final String USERNAME = "Steve";
+    private static final String BACKEND = "lobby";
+
+    private final HmacSigner signer = new HmacSigner(SECRET);
+
+    private byte[] referral(String backendName) {
+        return SecretMessageUtil.createPlayerInfoReferral(PLAYER, USERNAME, backendName,
+            new InetSocketAddress("127.0.0.1", 5520), signer);
+    }
+
+    private SecretMessageUtil.BackendPlayerInfoMessage validate(byte[] data, String backendName) {
+        return SecretMessageUtil.validateAndDecodePlayerInfoReferral(
+            Unpooled.wrappedBuffer(data), PLAYER, USERNAME, backendName, signer);
+    }
+
+    /**
+     * Builds a referral signed with {@link #signer} but carrying the given timestamp.
+     */
+    private byte[] referralAt(long timestampSeconds) {
+        byte[] username = USERNAME.getBytes(StandardCharsets.UTF_8);
+        byte[] backend = BACKEND.getBytes(StandardCharsets.UTF_8);
+        byte[] remote = "unknown".getBytes(StandardCharsets.UTF_8);
+
+        ByteBuf buf = Unpooled.buffer();
+        buf.writeIntLE(1);
+        buf.writeLongLE(PLAYER.getMostSignificantBits());
+        buf.writeLongLE(PLAYER.getLeastSignificantBits());
+        buf.writeIntLE(username.length).writeBytes(username);
+        buf.writeIntLE(backend.length).writeBytes(backend);
+        buf.writeIntLE(remote.length).writeBytes(remote);
+        buf.writeIntLE((int) timestampSeconds);
+        signer.sign(buf, 0, buf.writerIndex(), buf);
+
+        byte[] result = new byte[buf.readableBytes()];
+        buf.readBytes(result);
+        return result;
+    }
+
+    @Test
+    void roundTrip() {
+        SecretMessageUtil.BackendPlayerInfoMessage message = validate(referral(BACKEND), BACKEND);
+        assertNotNull(message);
+        assertEquals(PLAYER, message.uuid());
+        assertEquals(USERNAME, message.username());
+        assertEquals(BACKEND, message.backendName());
+        assertEquals("/127.0.0.1:5520", message.remoteAddress());
+    }
+
+    @Test
+    void roundTripWithSeparatorInBackendName() {
+        String backendName = "mini|games|1";
+        SecretMessageUtil.BackendPlayerInfoMessage message = validate(referral(backendName), backendName);
+        assertNotNull(message);
+        assertEquals(backendName, message.backendName());
+    }
+
+    @Test
+    void byteArraySecretMatchesSigner() {
+        byte[] data = SecretMessageUtil.createPlayerInfoReferral(PLAYER, USERNAME, BACKEND, null, SECRET);
+        assertNotNull(validate(data, BACKEND));
+    }
+
+    @Test
+    void changedSecretKeepsPreviousReferralsValid() {
+        byte[] oldSecret = "old-secret".getBytes(StandardCharsets.UTF_8);
+        byte[] newSecret = "new-secret".getBytes(StandardCharsets.UTF_8);
+        byte[] data = SecretMessageUtil.createPlayerInfoReferral(PLAYER, USERNAME, BACKEND, null, oldSecret);
+
+        assertNotNull(SecretMessageUtil.validateAndDecodePlayerInfoReferral(
+            Unpooled.wrappedBuffer(data), PLAYER, USERNAME, BACKEND, newSecret));
+
+        SecretMessageUtil.signerFor("newer-secret".getBytes(StandardCharsets.UTF_8));
+        assertNull(SecretMessageUtil.validateAndDecodePlayerInfoReferral(
+            Unpooled.wrappedBuffer(data), PLAYER, USERNAME, BACKEND, newSecret));
+    }
+
+    @Test
+    void rejectsTamperedTag() {
+        byte[] data = referral(BACKEND);
+        data[data.length - 1] ^= 1;
+        assertNull(validate(data, BACKEND));
+    }
+
+    @Test
+    void rejectsTruncatedTag() {
+        byte[] data = referral(BACKEND);
+        byte[] truncated = new byte[data.length - 1];
+        System.arraycopy(data, 0, truncated, 0, truncated.length);
+        assertNull(validate(truncated, BACKEND));
+    }
+
+    @Test
+    void rejectsTamperedBody() {
+        byte[] data = referral(BACKEND);
+        data[4] ^= 1;
+        assertNull(validate(data, BACKEND));
+    }
+
+    @Test
+    void rejectsOtherSecret() {
+        byte[] data = SecretMessageUtil.createPlayerInfoReferral(PLAYER, USERNAME, BACKEND, null,
+            new HmacSigner("other-secret".getBytes(StandardCharsets.UTF_8)));
+        assertNull(validate(data, BACKEND));
+    }
+
+    @Test
+    void rejectsExpiredReferral() {
+        long now = System.currentTimeMillis() / 1000;
+        assertNotNull(validate(referralAt(now), BACKEND));
+        assertNull(validate(referralAt(now - 600), BACKEND));
+    }
+
+    @Test
+    void rejectsFutureReferral() {
+        long now = System.currentTimeMillis() / 1000;
+        assertNull(validate(referralAt(now + 600), BACKEND));
+    }
+
+    @Test
+    void rejectsMismatchedPlayer() {
+        byte[] data = referral(BACKEND);
+        assertNull(SecretMessageUtil.validateAndDecodePlayerInfoReferral(
+            Unpooled.wrappedBuffer(data), UUID.randomUUID(), USERNAME, BACKEND, signer));
+        assertNull(SecretMessageUtil.validateAndDecodePlayerInfoReferral(
+            Unpooled.wrappedBuffer(data), PLAYER, "Alex", BACKEND, signer));
+    }
+
+    @Test
+    void rejectsMismatchedBackend() {
+        assertNull(validate(referral(BACKEND), "survival"));
+    }
+
+    @Test
+    void rejectsShortData() {
+        assertNull(validate(new byte[16], BACKEND));
+    }
+}
@@ -0,0 +1,57 @@
+package me.internalizable.numdrassl.server.transfer;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ReferralDataTest {
+
+    private static byte[] bytes(String data) {
+        return data.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void parsesBackendName() {
+        ReferralManager.ReferralData data = ReferralManager.ReferralData.parse(bytes("NUMDRASSL:lobby"));
+        assertNotNull(data);
+        assertEquals("lobby", data.backendName());
+    }
+
+    @Test
+    void keepsSeparatorsInBackendName() {
+        ReferralManager.ReferralData data = ReferralManager.ReferralData.parse(bytes("NUMDRASSL:mini|games|1"));
+        assertNotNull(data);
+        assertEquals("mini|games|1", data.backendName());
+    }
+
+    @Test
+    void keepsNonAsciiBackendName() {
+        ReferralManager.ReferralData data = ReferralManager.ReferralData.parse(bytes("NUMDRASSL:länd"));
+        assertNotNull(data);
+        assertEquals("länd", data.backendName());
+    }
+
+    @Test
+    void acceptsEmptyBackendName() {
+        ReferralManager.ReferralData data = ReferralManager.ReferralData.parse(bytes("NUMDRASSL:"));
+        assertNotNull(data);
+        assertEquals("", data.backendName());
+    }
+
+    @Test
+    void rejectsMissingData() {
+        assertNull(ReferralManager.ReferralData.parse(null));
+        assertNull(ReferralManager.ReferralData.parse(new byte[0]));
+    }
+
+    @Test
+    void rejectsForeignData() {
+        assertNull(ReferralManager.ReferralData.parse(bytes("lobby")));
+        assertNull(ReferralManager.ReferralData.parse(bytes("numdrassl:lobby")));
+        assertNull(ReferralManager.ReferralData.parse(new byte[] {1, 0, 0, 0, 42}));
+    }
+}